@@ -0,0 +1,257 @@
+package algorithms;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// Online allocator that chooses its policy while it runs, according to the requests that it gets.
+// All the policies share the same holes: the allocator is a switchable OnlineAllocator, which keeps the holes
+// ordered both by offset and by size, so changing the policy is O(1) and never rebuilds anything.
+//
+// The requests are sampled in windows of WINDOW requests: the mean and the coefficient of variation of their
+// sizes, how many of them failed, how long every SAMPLE_EVERY-th of them took (the tree searches of the
+// OnlineAllocator take O(log(h)) time, so their time is measured instead of counting probes) and how much smaller
+// the biggest hole got. At the end of every window the cost of the policy that was used is
+//
+//   mean time per request * (1 + FAILURE_WEIGHT * failure rate + SHRINK_WEIGHT * shrink)
+//
+// where shrink is the units that the biggest hole lost per unit requested, since a policy that uses up the big
+// holes while every request still fits (like WORST_FIT) causes the failures of the windows after it. The cost is
+// averaged with the earlier costs of the policy (exponentially weighted), and the policy with the lowest cost is
+// used for the next window if it is cheaper than the current one by more than MARGIN. Every policy is tried once
+// first, every EXPLORE_EVERY-th window tries the second best policy instead so that its cost doesn't get stale,
+// and if the size distribution moves by more than SHIFT from the one the costs were measured with, the costs are
+// forgotten and measured again. A decision looks at the four costs only, so its overhead is bounded and is paid
+// once every WINDOW requests.
+class AdaptiveAllocator
+{
+    static final int WINDOW = 4096; // The number of requests between two decisions
+    private static final int SAMPLE_EVERY = 8; // Every SAMPLE_EVERY-th request is timed, a power of two
+    private static final double FAILURE_WEIGHT = 100; // How much more a failed request costs than the time it took
+    private static final double ALPHA = 0.3; // The weight of the last window in the cost of a policy
+    private static final int EXPLORE_EVERY = 16; // Every EXPLORE_EVERY-th window tries the second best policy
+    private static final double SHIFT = 0.25; // The relative change of the size distribution that forgets the costs
+    private static final double SHRINK_WEIGHT = 1; // How much the units of the biggest hole used up cost
+    private static final double MARGIN = 0.1; // How much cheaper another policy must be to switch to it
+
+    private static final FitPolicy[] POLICIES = FitPolicy.values();
+
+    private final OnlineAllocator memory; // The holes shared by all the policies
+    private final double[] costs = new double[POLICIES.length]; // The cost of every policy, NaN if it's not known
+
+    // The samples of the current window
+    private int requests = 0;
+    private int failures = 0;
+    private int timedRequests = 0;
+    private long nanos = 0;
+    private long sizeSum = 0;
+    private double sizeSquareSum = 0;
+    private int largestAtStart = 0; // The biggest hole when the window started
+
+    // The size distribution that the costs were measured with
+    private double referenceMean = Double.NaN;
+    private double referenceVariation = Double.NaN;
+
+    private long windows = 0; // The number of windows so far
+    private long switches = 0; // The number of times that the policy changed
+
+    // Constructor of the AdaptiveAllocator class
+    // Takes the number of units of the memory as a parameter
+    AdaptiveAllocator(int capacity)
+    {
+        memory = new OnlineAllocator(capacity, POLICIES[0], true);
+        Arrays.fill(costs, Double.NaN);
+    }
+
+    // Returns the policy that the requests go to right now
+    FitPolicy policy()
+    {
+        return memory.policy();
+    }
+
+    // Returns the cost of the given policy, or NaN if it has not been measured with the current size distribution
+    double costOf(FitPolicy policy)
+    {
+        return costs[policy.ordinal()];
+    }
+
+    // Returns the number of times that the policy changed
+    long switches()
+    {
+        return switches;
+    }
+
+    // Returns the total units of all the holes
+    long freeSpace()
+    {
+        return memory.freeSpace();
+    }
+
+    // Returns the number of units of the biggest hole, or 0 if the memory is full
+    int largestHole()
+    {
+        return memory.largestHole();
+    }
+
+    /*
+     * Allocates a chunk of the given number of units with the current policy
+     * and returns its offset, which is the handle that frees it, or
+     * Allocator.NOT_ALLOCATED if the process doesn't fit in any hole.
+     */
+    int allocate(int size)
+    {
+        if (requests == 0)
+            largestAtStart = memory.largestHole();
+        boolean timed = (requests & (SAMPLE_EVERY - 1)) == 0;
+        long start = timed ? System.nanoTime() : 0;
+
+        int offset = memory.allocate(size);
+
+        if (timed)
+        {
+            nanos += System.nanoTime() - start;
+            timedRequests++;
+        }
+        if (offset == Allocator.NOT_ALLOCATED)
+            failures++;
+        sizeSum += size;
+        sizeSquareSum += (double) size * size;
+
+        if (++requests == WINDOW)
+            decide();
+        return offset;
+    }
+
+    // Frees the chunk with the given offset, which must have been returned by allocate and not freed since
+    void free(int offset)
+    {
+        memory.free(offset);
+    }
+
+    // Returns the number of units of the allocated chunk with the given offset
+    int sizeOf(int offset)
+    {
+        return memory.sizeOf(offset);
+    }
+
+    // Updates the cost of the current policy with the samples of the window and chooses the policy of the next window
+    private void decide()
+    {
+        windows++;
+
+        double mean = (double) sizeSum / requests;
+        double variation = Math.sqrt(Math.max(0, sizeSquareSum / requests - mean * mean)) / mean;
+
+        // The costs that were measured with a different size distribution are forgotten
+        if (Double.isNaN(referenceMean) || Math.abs(mean - referenceMean) > SHIFT * referenceMean
+                || Math.abs(variation - referenceVariation) > SHIFT * Math.max(referenceVariation, 0.1))
+        {
+            Arrays.fill(costs, Double.NaN);
+            referenceMean = mean;
+            referenceVariation = variation;
+        }
+
+        double shrink = Math.max(0, largestAtStart - memory.largestHole()) / (double) sizeSum;
+        double windowCost = (double) nanos / timedRequests
+                * (1 + FAILURE_WEIGHT * failures / requests + SHRINK_WEIGHT * shrink);
+        int current = memory.policy().ordinal();
+        costs[current] = Double.isNaN(costs[current]) ? windowCost : ALPHA * windowCost + (1 - ALPHA) * costs[current];
+
+        // A policy that has not been measured yet goes first, and otherwise the best one (or the second best)
+        int best = -1;
+        int secondBest = -1;
+        int unknown = -1;
+        for (int p = 0; p < costs.length; p++)
+        {
+            if (Double.isNaN(costs[p]))
+            {
+                if (unknown == -1)
+                    unknown = p;
+            }
+            else if (best == -1 || costs[p] < costs[best])
+            {
+                secondBest = best;
+                best = p;
+            }
+            else if (secondBest == -1 || costs[p] < costs[secondBest])
+                secondBest = p;
+        }
+
+        // The current policy is kept unless the best one is cheaper by more than MARGIN, so that noise doesn't switch
+        int next = best;
+        if (!Double.isNaN(costs[current]) && costs[best] > (1 - MARGIN) * costs[current])
+            next = current;
+        if (unknown != -1)
+            next = unknown;
+        else if (windows % EXPLORE_EVERY == 0 && secondBest != -1)
+            next = secondBest;
+
+        if (next != current)
+        {
+            memory.setPolicy(POLICIES[next]);
+            switches++;
+        }
+
+        requests = 0;
+        failures = 0;
+        timedRequests = 0;
+        nanos = 0;
+        sizeSum = 0;
+        sizeSquareSum = 0;
+    }
+
+    // Driver Method: runs a workload whose size distribution changes every phase on the adaptive allocator
+    // and on an OnlineAllocator with every fixed policy, and prints the time and the failures of each
+    public static void main(String[] args)
+    {
+        int capacity = 1 << 22;
+        int slots = 16384; // The chunks that can be live at the same time
+        int operations = 4_000_000;
+
+        System.out.printf("%-10s %10s %10s%n", "Policy", "Time (ms)", "Failures");
+        for (int p = 0; p <= POLICIES.length; p++)
+        {
+            AdaptiveAllocator adaptive = p == POLICIES.length ? new AdaptiveAllocator(capacity) : null;
+            OnlineAllocator fixed = adaptive == null ? new OnlineAllocator(capacity, POLICIES[p]) : null;
+
+            Random random = new Random(42);
+            int live[] = new int[slots];
+            Arrays.fill(live, Allocator.NOT_ALLOCATED);
+            long failed = 0;
+            long start = System.nanoTime();
+
+            for (int i = 0; i < operations; i++)
+            {
+                // Four phases: small uniform sizes, bimodal sizes, big uniform sizes and small uniform sizes again
+                int phase = 4 * i / operations;
+                int size;
+                if (phase == 1)
+                    size = random.nextInt(10) < 8 ? 8 + random.nextInt(57) : 256 + random.nextInt(769);
+                else if (phase == 2)
+                    size = 128 + random.nextInt(897);
+                else
+                    size = 1 + random.nextInt(64);
+
+                int slot = random.nextInt(slots);
+                if (live[slot] != Allocator.NOT_ALLOCATED)
+                {
+                    if (adaptive != null)
+                        adaptive.free(live[slot]);
+                    else
+                        fixed.free(live[slot]);
+                    live[slot] = Allocator.NOT_ALLOCATED;
+                }
+                else
+                {
+                    live[slot] = adaptive != null ? adaptive.allocate(size) : fixed.allocate(size);
+                    if (live[slot] == Allocator.NOT_ALLOCATED)
+                        failed++;
+                }
+            }
+
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            String name = adaptive != null ? "ADAPTIVE" : POLICIES[p].name();
+            System.out.printf("%-10s %10d %10d%s%n", name, millis, failed,
+                    adaptive != null ? " (" + adaptive.switches() + " switches, ended with " + adaptive.policy() + ")" : "");
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,226 @@
+package algorithms;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+// Metrics of the requests of an allocator: how many processes were allocated or failed, how many blocks (or tree
+// nodes, or bitmap words) the search checked (probed) for them, how long every request took and how fragmented
+// the free space is. Searches that can't count what they check (e.g. the TreeSet ones) record no probes, so the
+// mean is taken over the requests whose probes were recorded and is N/A if there are none.
+// Allocators record nothing and don't even read the clock unless they are given an AllocationMetrics,
+// so the metrics cost nothing when they are disabled.
+//
+// The latencies are counted in a histogram of log-linear buckets, like HdrHistogram: values below 2^SUB_BUCKET_BITS
+// nanoseconds have a bucket each and every higher power of two is split into 2^(SUB_BUCKET_BITS - 1) buckets,
+// so every latency is kept with a precision of about 3% and recording one is an array increment.
+// The metrics are meant to be recorded by the one thread that uses the allocator, while JMX or a snapshot
+// may read them from another thread and then see values that are slightly stale.
+public class AllocationMetrics implements AllocationMetricsMBean
+{
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS; // The values with a bucket each
+    private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2; // The buckets of every higher power of two
+
+    private final long[] latencyCounts = new long[SUB_BUCKETS + (64 - SUB_BUCKET_BITS) * HALF_SUB_BUCKETS];
+    private long requests;
+    private long failures;
+    private long probes;
+    private long probedRequests; // The number of requests whose probes were recorded
+    private long maxLatency;
+    private long freeSpace; // The total free space the last time the fragmentation was recorded
+    private long largestFree; // The biggest free block (or hole) the last time the fragmentation was recorded
+
+    // Records a request that took the given nanoseconds and either was allocated or failed
+    void recordRequest(long latencyNanos, boolean allocated)
+    {
+        requests++;
+        if (!allocated)
+            failures++;
+
+        latencyCounts[bucketOf(Math.max(latencyNanos, 0))]++;
+        maxLatency = Math.max(maxLatency, latencyNanos);
+    }
+
+    // Records the number of blocks (or tree nodes, or bitmap words) checked for a request
+    void recordProbes(long blocksChecked)
+    {
+        probes += blocksChecked;
+        probedRequests++;
+    }
+
+    // Records the total free space and the biggest free block (or hole) of the memory
+    void recordFragmentation(long freeSpace, long largestFree)
+    {
+        this.freeSpace = freeSpace;
+        this.largestFree = largestFree;
+    }
+
+    // Records the fragmentation of blocks with the given available space
+    void recordFragmentation(int availableSpace[])
+    {
+        long freeSpace = 0;
+        int largestFree = 0;
+        for (int space : availableSpace)
+        {
+            freeSpace += space;
+            largestFree = Math.max(largestFree, space);
+        }
+        recordFragmentation(freeSpace, largestFree);
+    }
+
+    @Override
+    public long getRequests()
+    {
+        return requests;
+    }
+
+    @Override
+    public long getFailures()
+    {
+        return failures;
+    }
+
+    @Override
+    public double getFailureRate()
+    {
+        return requests == 0 ? 0 : (double) failures / requests;
+    }
+
+    @Override
+    public long getProbes()
+    {
+        return probes;
+    }
+
+    // Returns the mean number of probes of the requests whose probes were recorded, or NaN if there are none
+    @Override
+    public double getMeanProbes()
+    {
+        return probedRequests == 0 ? Double.NaN : (double) probes / probedRequests;
+    }
+
+    @Override
+    public long getLatencyP50Nanos()
+    {
+        return latencyAtPercentile(50);
+    }
+
+    @Override
+    public long getLatencyP99Nanos()
+    {
+        return latencyAtPercentile(99);
+    }
+
+    @Override
+    public long getLatencyP999Nanos()
+    {
+        return latencyAtPercentile(99.9);
+    }
+
+    @Override
+    public long getLatencyMaxNanos()
+    {
+        return maxLatency;
+    }
+
+    // Returns the external fragmentation of the free space, 1 - (biggest free block / total free space),
+    // which is 0 when all the free space is in one block and gets close to 1 when it's split into many small blocks
+    @Override
+    public double getExternalFragmentation()
+    {
+        return freeSpace == 0 ? 0 : 1 - (double) largestFree / freeSpace;
+    }
+
+    // Returns the latency (the highest value of its bucket) that the given percentage of the requests didn't exceed
+    long latencyAtPercentile(double percentile)
+    {
+        long total = 0;
+        for (long count : latencyCounts)
+            total += count;
+        if (total == 0)
+            return 0;
+
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int bucket = 0; bucket < latencyCounts.length; bucket++)
+        {
+            seen += latencyCounts[bucket];
+            if (seen >= target)
+                return Math.min(highestValueOf(bucket), maxLatency);
+        }
+        return maxLatency;
+    }
+
+    // Returns the metrics as plain text, one metric per line
+    @Override
+    public String getSnapshot()
+    {
+        return String.format(
+                "requests:               %d%n" +
+                "failures:               %d (%.2f%%)%n" +
+                "probes per request:     %s%n" +
+                "latency p50:            %d ns%n" +
+                "latency p99:            %d ns%n" +
+                "latency p99.9:          %d ns%n" +
+                "latency max:            %d ns%n" +
+                "external fragmentation: %.4f%n",
+                requests, failures, 100 * getFailureRate(),
+                probedRequests == 0 ? "N/A" : String.format("%.2f", getMeanProbes()),
+                getLatencyP50Nanos(), getLatencyP99Nanos(), getLatencyP999Nanos(), getLatencyMaxNanos(),
+                getExternalFragmentation());
+    }
+
+    @Override
+    public String toString()
+    {
+        return getSnapshot();
+    }
+
+    // Clears all the metrics
+    @Override
+    public void reset()
+    {
+        Arrays.fill(latencyCounts, 0);
+        requests = 0;
+        failures = 0;
+        probes = 0;
+        probedRequests = 0;
+        maxLatency = 0;
+        freeSpace = 0;
+        largestFree = 0;
+    }
+
+    // Registers the metrics in the platform MBean server with the given name and returns their object name
+    ObjectName register(String name) throws JMException
+    {
+        ObjectName objectName = new ObjectName("algorithms:type=AllocationMetrics,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        return objectName;
+    }
+
+    // Returns the bucket of the given latency
+    private static int bucketOf(long value)
+    {
+        if (value < SUB_BUCKETS)
+            return (int) value;
+
+        // The value is in [2^k, 2^(k+1)) for k >= SUB_BUCKET_BITS, so dropping its lowest "shift" bits leaves
+        // a number in [HALF_SUB_BUCKETS, SUB_BUCKETS) that selects the bucket of that power of two
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS + 1;
+        return SUB_BUCKETS + (shift - 1) * HALF_SUB_BUCKETS + (int) (value >>> shift) - HALF_SUB_BUCKETS;
+    }
+
+    // Returns the highest value that goes to the given bucket
+    private static long highestValueOf(int bucket)
+    {
+        if (bucket < SUB_BUCKETS)
+            return bucket;
+
+        int shift = (bucket - SUB_BUCKETS) / HALF_SUB_BUCKETS + 1;
+        long subBucket = (bucket - SUB_BUCKETS) % HALF_SUB_BUCKETS + HALF_SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,29 @@
+package algorithms;
+
+// The attributes and operations of AllocationMetrics that are exported through JMX
+public interface AllocationMetricsMBean
+{
+    long getRequests();
+
+    long getFailures();
+
+    double getFailureRate();
+
+    long getProbes();
+
+    double getMeanProbes();
+
+    long getLatencyP50Nanos();
+
+    long getLatencyP99Nanos();
+
+    long getLatencyP999Nanos();
+
+    long getLatencyMaxNanos();
+
+    double getExternalFragmentation();
+
+    String getSnapshot();
+
+    void reset();
+}
@@ -0,0 +1,76 @@
+package algorithms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+// Common interface of the memory allocation algorithms.
+// Instead of returning a new ArrayList of Integers, an allocator writes the id of the block allocated to each
+// process into an int array given by the caller, so the same array can be reused for every batch of processes.
+interface Allocator
+{
+    // The block id of a process that has not been allocated
+    int NOT_ALLOCATED = -255;
+
+    /*
+     * Method to allocate memory to blocks. It writes into memoryAllocation,
+     * where the index is the process ID (zero-indexed) and the value is the
+     * block number (also zero-indexed) or NOT_ALLOCATED. memoryAllocation
+     * must have at least as many elements as sizeOfProcesses, the elements
+     * after them are left as they are. Allocators may reduce the available
+     * space of the blocks in sizeOfBlocks, the same way as they allocate them.
+     */
+    void allocate(int sizeOfBlocks[], int sizeOfProcesses[], int memoryAllocation[]);
+
+    // Same as the allocate method above, but returns a new array that holds the memory allocation
+    default int[] allocate(int sizeOfBlocks[], int sizeOfProcesses[])
+    {
+        int memoryAllocation[] = new int[sizeOfProcesses.length];
+        allocate(sizeOfBlocks, sizeOfProcesses, memoryAllocation);
+        return memoryAllocation;
+    }
+
+    // Initializes the first n elements of the memory allocation with NOT_ALLOCATED,
+    // which means that the processes are not allocated at the start
+    static void clear(int memoryAllocation[], int n)
+    {
+        Arrays.fill(memoryAllocation, 0, n, NOT_ALLOCATED);
+    }
+
+    // Converts the memory allocation to the ArrayList of Integers returned by the
+    // firstFit, nextFit, bestFit and worstFit methods
+    static ArrayList<Integer> toArrayList(int memoryAllocation[])
+    {
+        ArrayList<Integer> memAllocation = new ArrayList<>(memoryAllocation.length);
+        for (int blockId : memoryAllocation)
+            memAllocation.add(blockId);
+        return memAllocation;
+    }
+
+    // Converts an ArrayList of Integers returned by the firstFit, nextFit, bestFit and worstFit methods
+    // back to a memory allocation
+    static int[] toArray(ArrayList<Integer> memAllocation)
+    {
+        int memoryAllocation[] = new int[memAllocation.size()];
+        for (int i = 0; i < memoryAllocation.length; i++)
+            memoryAllocation[i] = memAllocation.get(i);
+        return memoryAllocation;
+    }
+
+    // Method to print the memory allocation
+    static void printMemoryAllocation(int memoryAllocation[])
+    {
+        System.out.println("Process No.\tBlock No.");
+        System.out.println("===========\t=========");
+        for (int i = 0; i < memoryAllocation.length; i++)
+        {
+            System.out.print(" " + i + "\t\t");
+            // if a process has been allocated position NOT_ALLOCATED, it means that it
+            // has not been actually allocated
+            if (memoryAllocation[i] != NOT_ALLOCATED)
+                System.out.print(memoryAllocation[i]);
+            else
+                System.out.print("Not Allocated");
+            System.out.println();
+        }
+    }
+}
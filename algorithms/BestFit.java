@@ -1,3 +1,5 @@
+package algorithms;
+
 import java.util.ArrayList;
 import java.util.TreeSet;
 
@@ -35,8 +37,78 @@ class Block implements Comparable<Block>{
     }
 }
 
-public class BestFit
+public class BestFit implements Allocator
 {
+    // The ordered sets that the blocks can be stored in while searching for the best block
+    enum Index
+    {
+        TREE_SET, // A TreeSet of Block objects
+        BLOCK_TREE, // A BlockTree of primitive keys
+        SEGREGATED // SizeClassBins for the small blocks in front of a BlockTree for the rest
+    }
+
+    // The biggest available space that has a bin in the SEGREGATED index, unless another one is given
+    static final int DEFAULT_BIN_LIMIT = 128;
+
+    private final Index index; // The ordered set that this allocator stores the blocks in
+    private final int binLimit; // The biggest available space that has a bin, if the index is SEGREGATED
+    private AllocationMetrics metrics = null; // The metrics that the requests are recorded in, or null if they are not recorded
+
+    // Constructor of the BestFit class, which stores the blocks in a BlockTree
+    BestFit()
+    {
+        this(Index.BLOCK_TREE);
+    }
+
+    // Constructor of the BestFit class
+    // Takes the ordered set that the blocks are stored in as a parameter
+    BestFit(Index index)
+    {
+        this.index = index;
+        this.binLimit = DEFAULT_BIN_LIMIT;
+    }
+
+    // Constructor of the BestFit class, which stores the blocks in SizeClassBins and a BlockTree
+    // Takes the biggest available space that has a bin as a parameter
+    BestFit(int binLimit)
+    {
+        if (binLimit < 1)
+            throw new IllegalArgumentException("binLimit must be positive: " + binLimit);
+
+        this.index = Index.SEGREGATED;
+        this.binLimit = binLimit;
+    }
+
+    // Makes the allocator record its requests in the given metrics, or stop recording them if it's null
+    void setMetrics(AllocationMetrics metrics)
+    {
+        this.metrics = metrics;
+    }
+
+    // Allocates memory to blocks according to the best fit algorithm,
+    // sizeOfBlocks is left as it is
+    @Override
+    public void allocate(int sizeOfBlocks[], int sizeOfProcesses[], int memoryAllocation[])
+    {
+        if (index == Index.TREE_SET)
+            allocateTreeSet(sizeOfBlocks, sizeOfProcesses, memoryAllocation, metrics);
+        else if (index == Index.SEGREGATED)
+            allocateSegregated(sizeOfBlocks, sizeOfProcesses, memoryAllocation, binLimit, metrics);
+        else
+            allocateBlockTree(sizeOfBlocks, sizeOfProcesses, memoryAllocation, metrics);
+
+        // Records how fragmented the available space of the blocks is after the allocation,
+        // which is found by subtracting the processes from a copy of the blocks, since sizeOfBlocks is left as it is
+        if (metrics != null)
+        {
+            int availableSpace[] = sizeOfBlocks.clone();
+            for (int i = 0; i < sizeOfProcesses.length; i++)
+                if (memoryAllocation[i] != NOT_ALLOCATED)
+                    availableSpace[memoryAllocation[i]] -= sizeOfProcesses[i];
+            metrics.recordFragmentation(availableSpace);
+        }
+    }
+
     /*
      * Method to allocate memory to blocks according to the best fit
      * algorithm. It should return an ArrayList of Integers, where the
@@ -44,6 +116,35 @@ public class BestFit
      * number (also zero-indexed).
      */
     static ArrayList<Integer> bestFit(int sizeOfBlocks[], int sizeOfProcesses[])
+    {
+        return Allocator.toArrayList(new BestFit(Index.TREE_SET).allocate(sizeOfBlocks, sizeOfProcesses));
+    }
+
+    /*
+     * Method to allocate memory to blocks according to the best fit
+     * algorithm, using a BlockTree of primitive keys instead of a TreeSet
+     * of Block objects. It returns exactly the same allocation as the
+     * bestFit method.
+     */
+    static ArrayList<Integer> bestFitPrimitive(int sizeOfBlocks[], int sizeOfProcesses[])
+    {
+        return Allocator.toArrayList(new BestFit(Index.BLOCK_TREE).allocate(sizeOfBlocks, sizeOfProcesses));
+    }
+
+    /*
+     * Method to allocate memory to blocks according to the best fit
+     * algorithm, serving the small processes from segregated bins of the
+     * blocks with the same available space. It allocates every process to
+     * a block with exactly the same available space as the bestFit method,
+     * but among blocks with equal space it may choose a different one.
+     */
+    static ArrayList<Integer> bestFitSegregated(int sizeOfBlocks[], int sizeOfProcesses[])
+    {
+        return Allocator.toArrayList(new BestFit(Index.SEGREGATED).allocate(sizeOfBlocks, sizeOfProcesses));
+    }
+
+    // Allocates memory to blocks by storing them in a TreeSet of Block objects
+    private static void allocateTreeSet(int sizeOfBlocks[], int sizeOfProcesses[], int memoryAllocation[], AllocationMetrics metrics)
     {
         // In this implementation of the best-fit algorithm,
         // the Block objects in the TreeSet are stored in ascending order according to their
@@ -62,12 +163,8 @@ public class BestFit
         int n = sizeOfProcesses.length; // Number of total processes
         int m = sizeOfBlocks.length; // Number of total blocks in memory
 
-        // Holds the id of the block allocated to the processes
-        ArrayList<Integer> memoryAllocation = new ArrayList<>();
-
-        // Initializes the Array list with "-255" which means that the process is not allocated at the start
-        for (int i = 0; i < n; i++)
-            memoryAllocation.add(-255);
+        // Initializes the memory allocation with NOT_ALLOCATED which means that the process is not allocated at the start
+        Allocator.clear(memoryAllocation, n);
 
         // The tree set (which is a red black tree) that contains the
         // blocks of the memory stored according to their available memory space,
@@ -80,6 +177,8 @@ public class BestFit
         // Finds the best suitable block for every process according to its available size
         for (int i = 0; i < n; i++)
         {
+            long start = metrics != null ? System.nanoTime() : 0; // The time that the search for this process started
+
             // Ceiling method returns the "smallest" element in this set greater than or equal to the given element,
             // or null if there is no such element.
             // So in order to get the block with the best suitable size we give a
@@ -92,7 +191,7 @@ public class BestFit
                 int bestBlockId = bestBlock.getId(); // The id of the block with the best suitable size
                 int bestBlockAvailableSpace = bestBlock.getAvailableSpace(); // The available space of the block with the best suitable size
 
-                memoryAllocation.set(i, bestBlockId); // Allocates the block found for the process
+                memoryAllocation[i] = bestBlockId; // Allocates the block found for the process
 
                 // Reduces available memory in that block by removing the previous Block object from the tree set and
                 // adding a new Block with the same id and with the reduced available memory.
@@ -100,28 +199,167 @@ public class BestFit
                 blocks.remove(bestBlock);
                 blocks.add(blockAfterAllocation);
             }
+
+            // Records the time that the search took, if the metrics are recorded
+            if (metrics != null)
+                metrics.recordRequest(System.nanoTime() - start, memoryAllocation[i] != NOT_ALLOCATED);
         }
+    }
+
+    // Allocates memory to blocks by storing them in a BlockTree of primitive keys
+    private static void allocateBlockTree(int sizeOfBlocks[], int sizeOfProcesses[], int memoryAllocation[], AllocationMetrics metrics)
+    {
+        // In this implementation of the best-fit algorithm, every block is a node of a BlockTree (a treap)
+        // whose arrays are indexed by the id of the block, and the blocks are ordered by a long key that packs
+        // their available space in the high 32 bits and their id in the low 32 bits.
+        // This is the same order as the compareTo of the Block class, but searching for the best block doesn't need a
+        // temporary Block object and updating a block just moves the same node, so after the tree is built
+        // no objects are created for any of the processes.
+
+        // Finally, with this implementation the overall time complexity will still be O(nlogn).
+
+        int n = sizeOfProcesses.length; // Number of total processes
+        int m = sizeOfBlocks.length; // Number of total blocks in memory
+
+        // Initializes the memory allocation with NOT_ALLOCATED which means that the process is not allocated at the start
+        Allocator.clear(memoryAllocation, n);
 
-        return memoryAllocation;
+        // The tree that contains the blocks of the memory stored according to their available memory space
+        BlockTree blocks = new BlockTree(m);
+
+        // Initializes the tree with the blocks (id and total size in KBs)
+        for (int i = 0; i < m; i++)
+            blocks.add(i, BlockTree.key(sizeOfBlocks[i], i));
+
+        // Finds the best suitable block for every process according to its available size
+        for (int i = 0; i < n; i++)
+        {
+            long start = metrics != null ? System.nanoTime() : 0; // The time that the search for this process started
+
+            // Ceiling method returns the block with the smallest key greater than or equal to the given key,
+            // so with the size of the process and the id 0 we get the block with the best suitable size.
+            int bestBlockId = blocks.ceiling(BlockTree.key(sizeOfProcesses[i], 0));
+            int nodesVisited = blocks.probes(); // The number of tree nodes that the search visited
+
+            // If a block that the current process fits was found
+            if (bestBlockId != BlockTree.NIL)
+            {
+                // The available space of the block with the best suitable size
+                int bestBlockAvailableSpace = BlockTree.availableSpace(blocks.keyOf(bestBlockId));
+
+                memoryAllocation[i] = bestBlockId; // Allocates the block found for the process
+
+                // Reduces available memory in that block by moving its node to the position of the reduced available memory
+                blocks.remove(bestBlockId);
+                blocks.add(bestBlockId, BlockTree.key(bestBlockAvailableSpace - sizeOfProcesses[i], bestBlockId));
+            }
+
+            // Records the number of tree nodes visited and the time that the search took, if the metrics are recorded
+            if (metrics != null)
+            {
+                metrics.recordProbes(nodesVisited);
+                metrics.recordRequest(System.nanoTime() - start, memoryAllocation[i] != NOT_ALLOCATED);
+            }
+        }
     }
 
-    // Method to print the memory allocation
-    public static void printMemoryAllocation(ArrayList<Integer> memAllocation) {
-        System.out.println("Process No.\tBlock No.");
-        System.out.println("===========\t=========");
-        for (int i = 0; i < memAllocation.size(); i++)
+    // Allocates memory to blocks by keeping the small blocks in SizeClassBins and the rest in a BlockTree
+    private static void allocateSegregated(int sizeOfBlocks[], int sizeOfProcesses[], int memoryAllocation[], int binLimit, AllocationMetrics metrics)
+    {
+        // In this implementation of the best-fit algorithm (quick fit), every block whose available space is
+        // from 1 to binLimit is kept in the bin of exactly that space and only the other blocks are kept in a BlockTree.
+        // The best block for a small process is the first block of the smallest bin that is not empty and
+        // not smaller than the process, found with a bitmap of the bins in O(binLimit/64) time, and moving
+        // the block to the bin of its reduced space takes O(1) time. Only the processes that are bigger than
+        // binLimit, or that don't fit in any bin, search the BlockTree in O(logm) time.
+
+        // Since a block with the best suitable size is always found (only which one of the blocks with that size
+        // may differ from the bestFit method), the same processes are allocated and the blocks end up
+        // with the same available spaces, so the fragmentation is exactly the same as in the bestFit method.
+
+        int n = sizeOfProcesses.length; // Number of total processes
+        int m = sizeOfBlocks.length; // Number of total blocks in memory
+
+        // Initializes the memory allocation with NOT_ALLOCATED which means that the process is not allocated at the start
+        Allocator.clear(memoryAllocation, n);
+
+        int availableSpace[] = sizeOfBlocks.clone(); // The available space of every block, since sizeOfBlocks is left as it is
+        SizeClassBins bins = new SizeClassBins(binLimit, m); // The blocks with small available space
+        BlockTree blocks = new BlockTree(m); // The rest of the blocks, stored according to their available memory space
+
+        // Initializes the bins and the tree with the blocks (id and total size in KBs)
+        for (int i = 0; i < m; i++)
         {
-            System.out.print(" " + i + "\t\t");
-            // if a process has been allocated position -255, it means that it
-            // has not been actually allocated
-            if (memAllocation.get(i) != -255)
-                System.out.print(memAllocation.get(i));
+            if (bins.fits(availableSpace[i]))
+                bins.add(i, availableSpace[i]);
             else
-                System.out.print("Not Allocated");
-            System.out.println();
+                blocks.add(i, BlockTree.key(availableSpace[i], i));
+        }
+
+        // Finds the best suitable block for every process according to its available size
+        for (int i = 0; i < n; i++)
+        {
+            long start = metrics != null ? System.nanoTime() : 0; // The time that the search for this process started
+
+            int size = sizeOfProcesses[i];
+            int bestBlockId = BlockTree.NIL;
+            boolean inBins = false; // Whether the best block was found in the bins
+            int probes = 0; // The number of words of the bitmap and of tree nodes that the searches visited
+
+            // Blocks with no available space (which only processes that are not positive fit) are only in the tree
+            if (size <= 0)
+            {
+                bestBlockId = blocks.ceiling(BlockTree.key(size, 0));
+                probes += blocks.probes();
+                if (bestBlockId != BlockTree.NIL && availableSpace[bestBlockId] > 0)
+                    bestBlockId = BlockTree.NIL;
+            }
+
+            // Searches the bins, and the tree if there's no bin that the process fits
+            if (bestBlockId == BlockTree.NIL)
+            {
+                bestBlockId = bins.firstAtLeast(size);
+                probes += bins.probes();
+                inBins = bestBlockId != SizeClassBins.NIL;
+                if (!inBins)
+                {
+                    bestBlockId = blocks.ceiling(BlockTree.key(size, 0));
+                    probes += blocks.probes();
+                }
+            }
+
+            // If a block that the current process fits was found
+            if (bestBlockId != BlockTree.NIL)
+            {
+                memoryAllocation[i] = bestBlockId; // Allocates the block found for the process
+
+                // Reduces available memory in that block and moves it to the bin or the position in the tree of its reduced space
+                if (inBins)
+                    bins.remove(bestBlockId);
+                else
+                    blocks.remove(bestBlockId);
+
+                availableSpace[bestBlockId] -= size;
+                if (bins.fits(availableSpace[bestBlockId]))
+                    bins.add(bestBlockId, availableSpace[bestBlockId]);
+                else
+                    blocks.add(bestBlockId, BlockTree.key(availableSpace[bestBlockId], bestBlockId));
+            }
+
+            // Records the number of bitmap words and tree nodes visited and the time that the search took, if the metrics are recorded
+            if (metrics != null)
+            {
+                metrics.recordProbes(probes);
+                metrics.recordRequest(System.nanoTime() - start, memoryAllocation[i] != NOT_ALLOCATED);
+            }
         }
     }
 
+    // Method to print the memory allocation
+    public static void printMemoryAllocation(ArrayList<Integer> memAllocation) {
+        Allocator.printMemoryAllocation(Allocator.toArray(memAllocation));
+    }
+
     // Driver Method to test your algorithm with a simple example
     public static void main(String[] args)
     {
@@ -0,0 +1,91 @@
+package algorithms;
+
+// Array based binary max heap of blocks, ordered by their available memory space.
+// In case their available space is equal, the block with the smallest id goes first, the same way as the
+// compareTo of the BlockInWorstFit class orders them for the last() method of the tree set.
+// The heap stores only the ids of the blocks and keeps the position of every block in the heap,
+// so the biggest block is found in O(1) time and its available space is reduced in place in O(log(m)) time.
+class BlockHeap
+{
+    private final int[] heap; // The ids of the blocks, heap[0] is the biggest block and the children of heap[k] are heap[2k+1] and heap[2k+2]
+    private final int[] position; // The index in the heap of every block
+    private final int[] availableSpace; // The available space of every block
+
+    // Constructor of the BlockHeap class
+    // Takes the available space of every block as a parameter and builds the heap in O(m) time
+    BlockHeap(int sizeOfBlocks[])
+    {
+        int m = sizeOfBlocks.length;
+
+        heap = new int[m];
+        position = new int[m];
+        availableSpace = sizeOfBlocks.clone();
+
+        for (int i = 0; i < m; i++)
+        {
+            heap[i] = i;
+            position[i] = i;
+        }
+
+        // Sifts down every block that has children, starting from the last one
+        for (int k = m / 2 - 1; k >= 0; k--)
+            siftDown(k);
+    }
+
+    // Returns true if there are no blocks in the heap
+    boolean isEmpty()
+    {
+        return heap.length == 0;
+    }
+
+    // Returns the id of the biggest block
+    int peek()
+    {
+        return heap[0];
+    }
+
+    // Returns the available space of the block with the given id
+    int availableSpace(int blockId)
+    {
+        return availableSpace[blockId];
+    }
+
+    // Reduces the available space of the block with the given id and moves it down to its new position
+    void decreaseKey(int blockId, int newAvailableSpace)
+    {
+        availableSpace[blockId] = newAvailableSpace;
+        siftDown(position[blockId]);
+    }
+
+    // Moves the block at index k of the heap down, until none of its children goes before it
+    private void siftDown(int k)
+    {
+        int m = heap.length;
+        int block = heap[k];
+
+        while (2 * k + 1 < m)
+        {
+            // The child that goes first
+            int child = 2 * k + 1;
+            if (child + 1 < m && goesBefore(heap[child + 1], heap[child]))
+                child++;
+
+            if (!goesBefore(heap[child], block))
+                break;
+
+            heap[k] = heap[child];
+            position[heap[k]] = k;
+            k = child;
+        }
+
+        heap[k] = block;
+        position[block] = k;
+    }
+
+    // Returns true if block a goes before block b in the heap,
+    // which means that it has more available space or the same available space and a smaller id
+    private boolean goesBefore(int a, int b)
+    {
+        return availableSpace[a] > availableSpace[b] || (availableSpace[a] == availableSpace[b] && a < b);
+    }
+}
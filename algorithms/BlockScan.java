@@ -0,0 +1,48 @@
+package algorithms;
+
+// Linear scan for the first block that a process fits, used by the VECTOR search of first fit and next fit.
+// When the jdk.incubator.vector module is available (the JVM is started with --add-modules jdk.incubator.vector)
+// and the CPU has SIMD registers of at least 4 ints, the blocks are compared several at a time by VectorScan.
+// Otherwise, or if the system property algorithms.vector is false, it falls back to checking them one by one,
+// which finds exactly the same block.
+class BlockScan
+{
+    // Whether the scan compares the blocks with SIMD instructions
+    static final boolean VECTORIZED = vectorized();
+
+    // Returns the smallest block id that is >= from and < to and has available space >= size, or -1 if there is no such block
+    static int firstAtLeast(int sizeOfBlocks[], int from, int to, int size)
+    {
+        if (VECTORIZED)
+            return VectorScan.firstAtLeast(sizeOfBlocks, from, to, size);
+        return scalarFirstAtLeast(sizeOfBlocks, from, to, size);
+    }
+
+    // Same as firstAtLeast, but always checks the blocks one by one
+    static int scalarFirstAtLeast(int sizeOfBlocks[], int from, int to, int size)
+    {
+        for (int j = from; j < to; j++)
+            if (sizeOfBlocks[j] >= size)
+                return j;
+        return -1;
+    }
+
+    // Returns true if VectorScan can be used. The VectorScan class is only loaded after the module is found,
+    // since loading it without the module fails.
+    private static boolean vectorized()
+    {
+        if (!Boolean.parseBoolean(System.getProperty("algorithms.vector", "true")))
+            return false;
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty())
+            return false;
+
+        try
+        {
+            return VectorScan.lanes() >= 4;
+        }
+        catch (LinkageError e)
+        {
+            return false;
+        }
+    }
+}
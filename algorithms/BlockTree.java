@@ -0,0 +1,403 @@
+package algorithms;
+
+import java.util.Arrays;
+
+// Ordered set of blocks that, unlike a TreeSet, stores nothing but primitives.
+// Every block is a node of a treap (a binary search tree that is also a heap on random priorities,
+// so that it stays balanced with an expected O(log(m)) height) and the nodes are kept in a single
+// long array indexed by the id of the block. Each block is ordered by a long key,
+// e.g. its available space packed in the high 32 bits and its id in the low 32 bits,
+// so no Block objects are created when searching, adding or removing blocks.
+// Optionally, every block also holds an int value (e.g. its available space when the blocks are ordered by their
+// address) and the tree keeps the maximum value of every subtree, so that the first block with a big enough value
+// can be found in O(log(m)) time.
+class BlockTree
+{
+    static final int NIL = -1; // The id used for "no block"
+
+    // The nodes of the tree, block b is stored at nodes[2b] (its key, by which the blocks are ordered)
+    // and nodes[2b + 1] (its left child in the high 32 bits and its right child in the low 32 bits).
+    // Keeping both in the same array means that visiting a node while searching touches a single cache line.
+    // The heap priority of a block is not stored at all, since it's a hash of its id.
+    private long[] nodes;
+    private int root = NIL; // The root of the tree
+
+    // The value of every block and the maximum value in the subtree of every block, or null if the tree has no values
+    private int[] values;
+    private int[] maxValues;
+
+    // The two parts that the last split produced, kept in fields so that splitting doesn't allocate anything
+    private int splitLeft;
+    private int splitRight;
+
+    private int probes; // The number of nodes that the last search (ceiling, last or firstAtLeast) visited
+
+    // Constructor of the BlockTree class
+    // Takes the number of blocks as a parameter, the ids of the blocks added to the tree must be in [0, capacity)
+    BlockTree(int capacity)
+    {
+        this(capacity, false);
+    }
+
+    // Constructor of the BlockTree class
+    // Takes the number of blocks and whether every block also holds a value as parameters
+    BlockTree(int capacity, boolean withValues)
+    {
+        nodes = new long[2 * capacity];
+        if (withValues)
+        {
+            values = new int[capacity];
+            maxValues = new int[capacity];
+        }
+    }
+
+    // Makes room for the blocks with ids in [0, capacity), keeping the blocks that are already in the tree
+    void ensureCapacity(int capacity)
+    {
+        if (2 * capacity <= nodes.length)
+            return;
+
+        nodes = Arrays.copyOf(nodes, 2 * capacity);
+        if (values != null)
+        {
+            values = Arrays.copyOf(values, capacity);
+            maxValues = Arrays.copyOf(maxValues, capacity);
+        }
+    }
+
+    // Packs the available space and the id of a block into a key, so that the blocks are compared by their
+    // available space and, in case their available space is equal, the block with the smallest id goes first
+    static long key(int availableSpace, int id)
+    {
+        return ((long) availableSpace << 32) | id;
+    }
+
+    // Returns the available space packed in the given key
+    static int availableSpace(long key)
+    {
+        return (int) (key >> 32);
+    }
+
+    // Returns the key of the given block
+    long keyOf(int block)
+    {
+        return nodes[2 * block];
+    }
+
+    // Returns the value of the given block
+    int valueOf(int block)
+    {
+        return values[block];
+    }
+
+    // Returns the maximum value of the blocks in the tree, or Integer.MIN_VALUE if the tree is empty
+    int maxValue()
+    {
+        return root == NIL ? Integer.MIN_VALUE : maxValues[root];
+    }
+
+    // Returns true if there are no blocks in the tree
+    boolean isEmpty()
+    {
+        return root == NIL;
+    }
+
+    // Returns the number of nodes that the last search (ceiling, last or firstAtLeast) visited
+    int probes()
+    {
+        return probes;
+    }
+
+    // Adds the given block with the given key to the tree
+    void add(int block, long key)
+    {
+        nodes[2 * block] = key;
+        root = add(root, block);
+    }
+
+    // Adds the given block with the given key and value to the tree, which must have been created with values
+    void add(int block, long key, int value)
+    {
+        values[block] = value;
+        add(block, key);
+    }
+
+    // Removes the given block from the tree, the block must be in the tree
+    void remove(int block)
+    {
+        root = remove(root, block);
+    }
+
+    /*
+     * Adds the first count blocks of the given array, which are sorted by
+     * their keys (keys[k] is the key of blocks[k] and values[k] its value, if
+     * the tree has values), to the tree in O(count) time instead of the
+     * O(count log(count)) time of adding them one by one. The tree must be empty.
+     */
+    void build(int blocks[], long keys[], int values[], int count)
+    {
+        // The blocks are sorted, so every new block goes to the right spine of the tree: it takes the place of the
+        // blocks of the spine with a lower priority, which become its left subtree, and a block that leaves the
+        // spine never changes again, so its maximum value is set when it leaves
+        int spine[] = new int[64]; // The right spine of the tree, from the root down, which is O(log(count)) long
+        int spinePriority[] = new int[64]; // The priority of every block of the spine
+        int length = 0;
+        for (int k = 0; k < count; k++)
+        {
+            int block = blocks[k];
+            int priority = priority(block);
+            nodes[2 * block] = keys[k];
+            if (this.values != null)
+                this.values[block] = values[k];
+
+            int left = NIL;
+            while (length > 0 && spinePriority[length - 1] < priority)
+            {
+                int t = spine[--length];
+                setChildren(t, left(t), left);
+                left = t;
+            }
+            setChildren(block, left, NIL);
+
+            if (length == spine.length)
+            {
+                spine = Arrays.copyOf(spine, 2 * length);
+                spinePriority = Arrays.copyOf(spinePriority, 2 * length);
+            }
+            spine[length] = block;
+            spinePriority[length++] = priority;
+        }
+
+        int right = NIL;
+        while (length > 0)
+        {
+            int t = spine[--length];
+            setChildren(t, left(t), right);
+            right = t;
+        }
+        root = right;
+    }
+
+    // Writes the blocks of the tree into the given array in the order of their keys and returns their number
+    int inOrder(int blocks[])
+    {
+        return inOrder(root, blocks, 0);
+    }
+
+    // Same as the method above, but only for the blocks of the subtree with root t, written from the given index
+    private int inOrder(int t, int blocks[], int index)
+    {
+        while (t != NIL)
+        {
+            index = inOrder(left(t), blocks, index);
+            blocks[index++] = t;
+            t = right(t);
+        }
+        return index;
+    }
+
+    // Returns the block with the smallest key that is greater than or equal to the given key, or NIL if there is no such block
+    int ceiling(long key)
+    {
+        int found = NIL;
+        int t = root;
+        probes = 0;
+        while (t != NIL)
+        {
+            probes++;
+            if (key(t) >= key)
+            {
+                found = t;
+                t = left(t);
+            }
+            else
+                t = right(t);
+        }
+        return found;
+    }
+
+    // Returns the block with the biggest key, or NIL if the tree is empty
+    int last()
+    {
+        int t = root;
+        probes = t != NIL ? 1 : 0;
+        if (t != NIL)
+        {
+            while (right(t) != NIL)
+            {
+                t = right(t);
+                probes++;
+            }
+        }
+        return t;
+    }
+
+    // Returns the block with the smallest key that is greater than or equal to the given key
+    // and has a value greater than or equal to the given value, or NIL if there is no such block
+    int firstAtLeast(long key, int value)
+    {
+        probes = 0;
+        return firstAtLeast(root, key, value);
+    }
+
+    // Same as the method above, but only for the blocks of the subtree with root t
+    private int firstAtLeast(int t, long key, int value)
+    {
+        // No block of the subtree has a big enough value
+        if (t == NIL)
+            return NIL;
+        probes++;
+        if (maxValues[t] < value)
+            return NIL;
+
+        // t and its left subtree have smaller keys, so only the right subtree is left
+        if (key(t) < key)
+            return firstAtLeast(right(t), key, value);
+
+        int found = firstAtLeast(left(t), key, value);
+        if (found != NIL)
+            return found;
+        if (values[t] >= value)
+            return t;
+        return firstAtLeast(right(t), key, value);
+    }
+
+    // Adds the block to the subtree with root t and returns the new root of the subtree
+    private int add(int t, int block)
+    {
+        if (t == NIL)
+        {
+            setChildren(block, NIL, NIL);
+            return block;
+        }
+
+        // The block goes above t, so the subtree of t is split around the key of the block and becomes its children
+        if (priority(block) > priority(t))
+        {
+            split(t, key(block));
+            setChildren(block, splitLeft, splitRight);
+            return block;
+        }
+
+        if (key(block) < key(t))
+            setLeft(t, add(left(t), block));
+        else
+            setRight(t, add(right(t), block));
+        return t;
+    }
+
+    // Removes the block from the subtree with root t and returns the new root of the subtree
+    private int remove(int t, int block)
+    {
+        if (t == block)
+            return merge(left(t), right(t));
+
+        if (key(block) < key(t))
+            setLeft(t, remove(left(t), block));
+        else
+            setRight(t, remove(right(t), block));
+        return t;
+    }
+
+    // Splits the subtree with root t into the blocks with key < the given key (splitLeft) and the rest (splitRight)
+    private void split(int t, long key)
+    {
+        if (t == NIL)
+        {
+            splitLeft = NIL;
+            splitRight = NIL;
+        }
+        else if (key(t) < key)
+        {
+            split(right(t), key);
+            setRight(t, splitLeft);
+            splitLeft = t;
+        }
+        else
+        {
+            split(left(t), key);
+            setLeft(t, splitRight);
+            splitRight = t;
+        }
+    }
+
+    // Merges the subtrees with roots a and b, where every key in a is smaller than every key in b,
+    // and returns the root of the merged tree
+    private int merge(int a, int b)
+    {
+        if (a == NIL)
+            return b;
+        if (b == NIL)
+            return a;
+
+        if (priority(a) > priority(b))
+        {
+            setRight(a, merge(right(a), b));
+            return a;
+        }
+        else
+        {
+            setLeft(b, merge(a, left(b)));
+            return b;
+        }
+    }
+
+    // Returns the key of the given block
+    private long key(int block)
+    {
+        return nodes[2 * block];
+    }
+
+    // Returns the left child of the given block
+    private int left(int block)
+    {
+        return (int) (nodes[2 * block + 1] >> 32);
+    }
+
+    // Returns the right child of the given block
+    private int right(int block)
+    {
+        return (int) nodes[2 * block + 1];
+    }
+
+    // Sets both children of the given block
+    // and, if the blocks hold values, recomputes the maximum value of its subtree
+    private void setChildren(int block, int left, int right)
+    {
+        nodes[2 * block + 1] = ((long) left << 32) | (right & 0xFFFFFFFFL);
+
+        if (values != null)
+        {
+            int max = values[block];
+            if (left != NIL)
+                max = Math.max(max, maxValues[left]);
+            if (right != NIL)
+                max = Math.max(max, maxValues[right]);
+            maxValues[block] = max;
+        }
+    }
+
+    // Sets the left child of the given block
+    private void setLeft(int block, int left)
+    {
+        setChildren(block, left, right(block));
+    }
+
+    // Sets the right child of the given block
+    private void setRight(int block, int right)
+    {
+        setChildren(block, left(block), right);
+    }
+
+    // Returns a pseudo random priority for the given block, by mixing the bits of its id
+    private static int priority(int block)
+    {
+        int h = block * 0x9E3779B9;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,192 @@
+package algorithms;
+
+import java.util.Arrays;
+
+// Binary buddy system over a range of units [0, capacity), for pools of buffers whose sizes are powers of two.
+// Every chunk has a size of 2^k units (its order is k) and starts at a multiple of its size, so the chunk it was
+// split from and its buddy (the other half of that chunk) are found with address arithmetic: the buddy of the
+// chunk at offset o with order k is at o ^ 2^k.
+//
+// The free chunks of every order are kept in a free list, a doubly linked list threaded through arrays indexed
+// by the offset of the chunk, backed by a bitmap per order with one bit for every chunk of that order that is set
+// if it's free. A request is rounded up to the next power of two and taken from the smallest order that has
+// a free chunk (found in O(1) time from a bitmask of the orders that have free chunks), splitting it in halves
+// down to the order of the request, and a freed chunk merges with its buddy as long as the bitmap shows that the
+// buddy is free, so both take O(log(capacity)) time and every merge step takes O(1) time.
+// A capacity that is not a power of two starts as its binary decomposition: one free chunk for every bit of it.
+class BuddyAllocator
+{
+    private final int capacity; // The number of units of the memory
+    private final int maxOrder; // The order of the biggest chunk that fits in the memory
+
+    private final long[][] freeChunks; // The bitmap of the free chunks of every order, bit o >> k of order k is the chunk at offset o
+    private final int[] first; // The first chunk of the free list of every order, or -1 if it's empty
+    private final int[] next; // The chunk after every free chunk in its free list
+    private final int[] previous; // The chunk before every free chunk in its free list
+    private final byte[] allocatedOrder; // The order + 1 of every allocated chunk at its offset, 0 for every other unit
+    private int nonEmptyOrders = 0; // Bit k is set if the free list of order k is not empty
+    private long freeSpace; // The total units of all the free chunks
+
+    // Constructor of the BuddyAllocator class
+    // Takes the number of units of the memory as a parameter
+    BuddyAllocator(int capacity)
+    {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+
+        this.capacity = capacity;
+        maxOrder = 31 - Integer.numberOfLeadingZeros(capacity);
+
+        freeChunks = new long[maxOrder + 1][];
+        for (int k = 0; k <= maxOrder; k++)
+            freeChunks[k] = new long[((capacity >>> k) + 63) >>> 6];
+        first = new int[maxOrder + 1];
+        Arrays.fill(first, -1);
+        next = new int[capacity];
+        previous = new int[capacity];
+        allocatedOrder = new byte[capacity];
+
+        // At the start there is a free chunk for every bit of the capacity, the biggest one first
+        int offset = 0;
+        for (int k = maxOrder; k >= 0; k--)
+        {
+            if ((capacity & (1 << k)) != 0)
+            {
+                push(offset, k);
+                offset += 1 << k;
+            }
+        }
+        freeSpace = capacity;
+    }
+
+    // Returns the number of units of the memory
+    int capacity()
+    {
+        return capacity;
+    }
+
+    // Returns the total units of all the free chunks
+    long freeSpace()
+    {
+        return freeSpace;
+    }
+
+    // Returns the number of units of the biggest free chunk, or 0 if the memory is full
+    int largestFree()
+    {
+        return nonEmptyOrders == 0 ? 0 : Integer.highestOneBit(nonEmptyOrders);
+    }
+
+    // Returns the number of units of the chunk that a request of the given size (up to 2^30) gets, the next power of two
+    static int chunkSize(int size)
+    {
+        return size <= 1 ? 1 : Integer.highestOneBit(size - 1) << 1;
+    }
+
+    /*
+     * Allocates a chunk of at least the given number of units and returns its
+     * offset, which is the handle that frees it, or Allocator.NOT_ALLOCATED
+     * if there is no free chunk big enough.
+     */
+    int allocate(int size)
+    {
+        if (size <= 0)
+            throw new IllegalArgumentException("size must be positive: " + size);
+        if (size > 1 << maxOrder)
+            return Allocator.NOT_ALLOCATED;
+
+        int order = 31 - Integer.numberOfLeadingZeros(chunkSize(size));
+
+        // The smallest order >= the order of the request that has a free chunk
+        int orders = nonEmptyOrders & (-1 << order);
+        if (orders == 0)
+            return Allocator.NOT_ALLOCATED;
+        int k = Integer.numberOfTrailingZeros(orders);
+
+        int offset = first[k];
+        unlink(offset, k);
+
+        // Splits the chunk in halves down to the order of the request, keeping the first half every time
+        while (k > order)
+        {
+            k--;
+            push(offset + (1 << k), k);
+        }
+
+        allocatedOrder[offset] = (byte) (order + 1);
+        freeSpace -= 1 << order;
+        return offset;
+    }
+
+    // Frees the chunk with the given offset, which must have been returned by allocate and not freed since,
+    // and merges it with its buddy for as long as the buddy is free
+    void free(int offset)
+    {
+        if (offset < 0 || offset >= capacity || allocatedOrder[offset] == 0)
+            throw new IllegalArgumentException("not an allocated chunk: " + offset);
+
+        int k = allocatedOrder[offset] - 1;
+        allocatedOrder[offset] = 0;
+        freeSpace += 1 << k;
+
+        while (k < maxOrder)
+        {
+            int buddy = offset ^ (1 << k);
+            if (!isFree(buddy, k))
+                break;
+
+            // The buddy is free, so both halves become the chunk they were split from
+            unlink(buddy, k);
+            offset &= ~(1 << k);
+            k++;
+        }
+
+        push(offset, k);
+    }
+
+    // Returns the number of units of the allocated chunk with the given offset
+    int sizeOf(int offset)
+    {
+        return 1 << (allocatedOrder[offset] - 1);
+    }
+
+    // Returns true if the chunk at the given offset with the given order is free
+    private boolean isFree(int offset, int k)
+    {
+        if (offset + (1L << k) > capacity)
+            return false;
+        int chunk = offset >>> k;
+        return (freeChunks[k][chunk >>> 6] & (1L << chunk)) != 0;
+    }
+
+    // Adds the chunk at the given offset to the start of the free list of the given order
+    private void push(int offset, int k)
+    {
+        int head = first[k];
+        next[offset] = head;
+        previous[offset] = -1;
+        if (head != -1)
+            previous[head] = offset;
+        first[k] = offset;
+
+        int chunk = offset >>> k;
+        freeChunks[k][chunk >>> 6] |= 1L << chunk;
+        nonEmptyOrders |= 1 << k;
+    }
+
+    // Removes the chunk at the given offset from the free list of the given order
+    private void unlink(int offset, int k)
+    {
+        if (previous[offset] != -1)
+            next[previous[offset]] = next[offset];
+        else
+            first[k] = next[offset];
+        if (next[offset] != -1)
+            previous[next[offset]] = previous[offset];
+
+        int chunk = offset >>> k;
+        freeChunks[k][chunk >>> 6] &= ~(1L << chunk);
+        if (first[k] == -1)
+            nonEmptyOrders &= ~(1 << k);
+    }
+}
@@ -0,0 +1,116 @@
+package algorithms;
+
+import java.util.ArrayList;
+
+// The buddy system as a fifth placement strategy for the batches of processes of the other four.
+// Every block is a buddy system of its own, starting at offset 0 of the block, so its free space starts as one
+// free chunk for every bit of its size (e.g. a block of 600 KBs is split in chunks of 512, 64, 16 and 8 KBs),
+// and every process is rounded up to the next power of two and allocated to the first block (like first fit)
+// that has a free chunk at least as big as it.
+//
+// Since nothing is freed in a batch and a request is always split off the smallest free chunk that it fits,
+// the free chunks of a block always have different orders, so the free lists of a block are exactly the bits
+// of its available space: bit k is set if the block has a free chunk of 2^k KBs. A process of 2^k KBs fits in a
+// block if any bit >= k is set, which means if the available space is >= 2^k, and splitting the smallest of those
+// chunks down to 2^k leaves exactly the bits of the available space minus 2^k. That way the blocks are searched
+// with the same segment tree as first fit and the difference from first fit is that the space allocated to every
+// process is a power of two, which wastes space inside the chunks (internal fragmentation) but keeps every
+// chunk aligned and lets a buddy system (see BuddyAllocator) merge freed chunks with address arithmetic.
+public class BuddyFit implements Allocator
+{
+    private AllocationMetrics metrics = null; // The metrics that the requests are recorded in, or null if they are not recorded
+
+    // Makes the allocator record its requests in the given metrics, or stop recording them if it's null
+    void setMetrics(AllocationMetrics metrics)
+    {
+        this.metrics = metrics;
+    }
+
+    // Allocates memory to blocks according to the buddy system,
+    // the available space of the allocated blocks is reduced in sizeOfBlocks by the power of two allocated
+    @Override
+    public void allocate(int sizeOfBlocks[], int sizeOfProcesses[], int memoryAllocation[])
+    {
+        int n = sizeOfProcesses.length; // Number of total processes
+
+        // Initializes the memory allocation with NOT_ALLOCATED which means that the process is not allocated at the start
+        Allocator.clear(memoryAllocation, n);
+
+        // The segment tree that contains the available memory space of every block
+        MaxSegmentTree blocks = new MaxSegmentTree(sizeOfBlocks);
+
+        // Finds the first block that has a free chunk for each process
+        for (int i = 0; i < n; i++)
+        {
+            long start = metrics != null ? System.nanoTime() : 0; // The time that the search for this process started
+            int nodesVisited = 0; // The number of tree nodes that the search visited
+
+            // Processes bigger than 2^30 KBs don't fit in any chunk, since no block has 2^31 KBs
+            if (sizeOfProcesses[i] <= 1 << 30)
+            {
+                int chunkSize = BuddyAllocator.chunkSize(sizeOfProcesses[i]); // The power of two allocated to the process
+                int j = blocks.firstAtLeast(0, chunkSize); // Id of the first block that has a free chunk for the process
+                nodesVisited = blocks.probes();
+
+                // If such a block was found, allocates block with id j for process with id i and splits the chunk in it
+                if (j != -1)
+                {
+                    memoryAllocation[i] = j;
+                    sizeOfBlocks[j] -= chunkSize;
+                    blocks.set(j, sizeOfBlocks[j]);
+                }
+            }
+
+            // Records the number of tree nodes visited and the time that the search took, if the metrics are recorded
+            if (metrics != null)
+            {
+                metrics.recordProbes(nodesVisited);
+                metrics.recordRequest(System.nanoTime() - start, memoryAllocation[i] != NOT_ALLOCATED);
+            }
+        }
+
+        // Records how fragmented the available space of the blocks is after the allocation
+        if (metrics != null)
+            metrics.recordFragmentation(sizeOfBlocks);
+    }
+
+    /*
+     * Method to allocate memory to blocks according to the buddy system.
+     * It returns an ArrayList of Integers, where the index is the process
+     * ID (zero-indexed) and the value is the block number (also
+     * zero-indexed), the same way as the firstFit and bestFit methods.
+     */
+    static ArrayList<Integer> buddyFit(int sizeOfBlocks[], int sizeOfProcesses[])
+    {
+        return Allocator.toArrayList(new BuddyFit().allocate(sizeOfBlocks, sizeOfProcesses));
+    }
+
+    // Returns the percentage of the space allocated to the given processes that they don't use
+    // (internal fragmentation), since every process was allocated the next power of two
+    static double internalFragmentation(int sizeOfProcesses[], int memoryAllocation[])
+    {
+        long used = 0;
+        long allocated = 0;
+        for (int i = 0; i < sizeOfProcesses.length; i++)
+        {
+            if (memoryAllocation[i] != NOT_ALLOCATED)
+            {
+                used += sizeOfProcesses[i];
+                allocated += BuddyAllocator.chunkSize(sizeOfProcesses[i]);
+            }
+        }
+        return allocated == 0 ? 0 : 100.0 * (allocated - used) / allocated;
+    }
+
+    // Driver Method to test the buddy system with the same example as the other algorithms
+    public static void main(String[] args)
+    {
+        // The blocks (id and size in KBs) and the processes (id and size in KBs) of the example
+        int sizeOfBlocks[] = {200, 500, 100, 300, 600};
+        int sizeOfProcesses[] = {214, 415, 112, 425};
+
+        int memoryAllocation[] = new BuddyFit().allocate(sizeOfBlocks, sizeOfProcesses);
+        Allocator.printMemoryAllocation(memoryAllocation);
+        System.out.printf("Internal fragmentation: %.2f%%%n", internalFragmentation(sizeOfProcesses, memoryAllocation));
+    }
+}
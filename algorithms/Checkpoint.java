@@ -0,0 +1,177 @@
+package algorithms;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+// Saves the state of an OnlineAllocator to a file and restores it, so that an allocator doesn't have to be
+// rebuilt by replaying its requests after a restart.
+//
+// A checkpoint starts with a 32 byte header of ints (the MAGIC number, the VERSION of the format, the capacity,
+// the ordinal of the policy, 1 if the allocator is switchable or 0 if it's not, the pointer of next fit,
+// the number of chunks and the number of holes in the size order) followed by two columns of ints:
+// the size of every chunk in the order of their offsets, negative for the holes, and the holes in the order
+// of their sizes, every hole given by its index among the holes (empty if the allocator keeps the holes
+// by offset only). Every number is little endian.
+//
+// The columns are written through a FileChannel and read back from a memory map with bulk copies, and the
+// holes are added to their trees in bulk (see OnlineAllocator.restore), since they are already in the order of
+// each tree, so restoring takes O(capacity + chunks) time instead of the O(chunks log(chunks)) of adding them.
+class Checkpoint
+{
+    static final int MAGIC = 0x504B434D; // "MCKP" in little endian
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+
+    private static final int WINDOW_INTS = 1 << 28; // The ints that are mapped at a time, 1GB
+
+    /*
+     * Saves the chunks, the holes and the pointer of the given allocator to
+     * the given file, which is created or truncated. Its metrics are not saved.
+     */
+    static void save(OnlineAllocator memory, Path file) throws IOException
+    {
+        int chunkSizes[] = memory.chunkSizes();
+        int holesBySize[] = memory.holesBySize();
+        if (holesBySize == null)
+            holesBySize = new int[0];
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))
+        {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(memory.capacity()).putInt(memory.policy().ordinal())
+                    .putInt(memory.switchable() ? 1 : 0).putInt(memory.pointer())
+                    .putInt(chunkSizes.length).putInt(holesBySize.length);
+            write(channel, buffer);
+
+            writeColumn(channel, buffer, chunkSizes);
+            writeColumn(channel, buffer, holesBySize);
+        }
+    }
+
+    /*
+     * Restores the allocator saved in the given file. Throws an IOException
+     * if the file is not a checkpoint or if its chunks are not consistent.
+     */
+    static OnlineAllocator restore(Path file) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            long size = channel.size();
+            if (size < HEADER_SIZE)
+                throw new IOException("not a checkpoint file (" + size + " bytes): " + file);
+
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION)
+                throw new IOException("not a checkpoint file (bad header): " + file);
+
+            int capacity = header.getInt();
+            int policy = header.getInt();
+            boolean switchable = header.getInt() != 0;
+            int pointer = header.getInt();
+            int chunkCount = header.getInt();
+            int holeCount = header.getInt();
+
+            if (policy < 0 || policy >= FitPolicy.values().length || chunkCount < 0 || holeCount < 0
+                    || size != HEADER_SIZE + 4L * chunkCount + 4L * holeCount)
+                throw new IOException("not a checkpoint file (bad header): " + file);
+
+            int chunkSizes[] = new int[chunkCount];
+            int holesBySize[] = new int[holeCount];
+            readColumn(channel, HEADER_SIZE, chunkSizes);
+            readColumn(channel, HEADER_SIZE + 4L * chunkCount, holesBySize);
+
+            try
+            {
+                return OnlineAllocator.restore(capacity, FitPolicy.values()[policy], switchable, pointer,
+                        chunkSizes, chunkCount, holesBySize);
+            }
+            catch (IllegalArgumentException e)
+            {
+                throw new IOException("corrupt checkpoint (" + e.getMessage() + "): " + file);
+            }
+        }
+    }
+
+    // Writes the given ints through the buffer, a buffer full at a time
+    private static void writeColumn(FileChannel channel, ByteBuffer buffer, int column[]) throws IOException
+    {
+        int ints = buffer.capacity() / 4;
+        for (int from = 0; from < column.length; from += ints)
+        {
+            int length = Math.min(ints, column.length - from);
+            buffer.asIntBuffer().put(column, from, length);
+            buffer.position(4 * length);
+            write(channel, buffer);
+        }
+    }
+
+    // Writes what has been put in the buffer and clears it
+    private static void write(FileChannel channel, ByteBuffer buffer) throws IOException
+    {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+
+    // Reads the ints of the file that start at the given position into the given array, mapping a window at a time
+    private static void readColumn(FileChannel channel, long position, int column[]) throws IOException
+    {
+        for (int from = 0; from < column.length; from += WINDOW_INTS)
+        {
+            int length = Math.min(WINDOW_INTS, column.length - from);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position + 4L * from, 4L * length);
+            window.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(column, from, length);
+        }
+    }
+
+    // Driver Method: fills a switchable allocator with about the given number of chunks (10^7 by default),
+    // frees every other one, and times saving it to the given file and restoring it
+    public static void main(String[] args) throws IOException
+    {
+        Path file = args.length > 0 ? Paths.get(args[0]) : Files.createTempFile("checkpoint", ".bin");
+        int chunks = args.length > 1 ? Integer.parseInt(args[1]) : 10_000_000;
+
+        // Chunks of 1 to 4 units until the memory is full, and then every other chunk is freed, so half the chunks are holes
+        OnlineAllocator memory = new OnlineAllocator((int) (2.5 * chunks), FitPolicy.BEST_FIT, true);
+        Random random = new Random(42);
+        int offsets[] = new int[chunks + 1];
+        int allocated = 0;
+        for (int offset; allocated < offsets.length && (offset = memory.allocate(1 + random.nextInt(4))) != Allocator.NOT_ALLOCATED; )
+            offsets[allocated++] = offset;
+        for (int i = 0; i < allocated; i += 2)
+            memory.free(offsets[i]);
+        memory.setPolicy(FitPolicy.NEXT_FIT);
+        memory.allocate(1);
+
+        long start = System.nanoTime();
+        save(memory, file);
+        long saveNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        OnlineAllocator restored = restore(file);
+        long restoreNanos = System.nanoTime() - start;
+
+        boolean same = Arrays.equals(memory.chunkSizes(), restored.chunkSizes())
+                && Arrays.equals(memory.holesBySize(), restored.holesBySize())
+                && memory.pointer() == restored.pointer() && memory.policy() == restored.policy()
+                && memory.freeSpace() == restored.freeSpace() && memory.largestHole() == restored.largestHole();
+
+        System.out.printf("Chunks: %d (%d holes), checkpoint: %d bytes%n", restored.chunkSizes().length, restored.holeCount(), Files.size(file));
+        System.out.printf("Save: %.1f ms, restore: %.1f ms, restored state %s%n", saveNanos / 1e6, restoreNanos / 1e6,
+                same ? "is the same" : "DIFFERS");
+
+        if (args.length == 0)
+            Files.delete(file);
+    }
+}
@@ -0,0 +1,341 @@
+package algorithms;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// Incremental compaction of an OnlineAllocator, which slides the allocated chunks down towards offset 0 so that
+// the holes between them join into one hole at the end of the memory.
+//
+// The compaction runs in steps, between which the memory can be used as usual once the moves have been applied
+// (see below), and every step stops as soon as it has used up its budget of units moved or of time, so it never
+// pauses the program for long. A step scans the chunks from where the last step stopped: every allocated chunk
+// right after a hole is moved down to the start of the hole (OnlineAllocator.slideDown), which moves the hole up
+// to right after the chunk, where it merges with the next hole. When the scan reaches the end of the memory it
+// starts again from offset 0 on the next step.
+//
+// Every move is added to a relocation map from the offset that the chunk had before it was first moved to the
+// offset that it has now, so the owners of the chunks can find their new offsets (relocation) and then clear
+// the map (clearRelocations). The map is keyed by offsets, which allocate and free could give to other chunks,
+// so once a chunk has moved the memory refuses allocate and free until clearRelocations is called.
+// The contents of the chunks are moved by an optional ChunkMover.
+class Compactor
+{
+    // Moves the contents of a chunk to its new offset, e.g. in the buffer whose units the OnlineAllocator allocates.
+    // The ranges can overlap, but the chunk always moves to a lower offset.
+    interface ChunkMover
+    {
+        void move(int from, int to, int size);
+    }
+
+    private final OnlineAllocator memory; // The memory that is compacted
+    private final ChunkMover mover; // Moves the contents of the chunks, or null if only the chunks are moved
+
+    private int cursor = 0; // The offset of the chunk that the next step starts from
+    private final OffsetMap relocations = new OffsetMap(); // The current offset of every moved chunk, by its offset before the first move
+    private final OffsetMap origins = new OffsetMap(); // The offset before the first move of every moved chunk, by its current offset
+
+    // The results of the last step
+    private double fragmentationBefore = 0;
+    private double fragmentationAfter = 0;
+    private long unitsMoved = 0;
+    private int chunksMoved = 0;
+
+    // Constructor of the Compactor class
+    // Takes the memory that is compacted and the mover of the contents of the chunks (which can be null) as parameters
+    Compactor(OnlineAllocator memory, ChunkMover mover)
+    {
+        this.memory = memory;
+        this.mover = mover;
+    }
+
+    // Returns the external fragmentation of the given memory, 1 - biggest hole / free space, which is 0 if all the
+    // free space is in one hole and gets close to 1 as it's split in more and more small holes
+    static double fragmentation(OnlineAllocator memory)
+    {
+        long freeSpace = memory.freeSpace();
+        return freeSpace == 0 ? 0 : 1 - (double) memory.largestHole() / freeSpace;
+    }
+
+    /*
+     * Runs one step of the compaction, which stops after moving about
+     * unitBudget units or after nanoBudget nanoseconds (Long.MAX_VALUE for no
+     * limit), and returns the number of units moved. Skipping a chunk that
+     * doesn't need to move costs one unit of the budget, so that a step over
+     * memory that is already compact is short as well. A step over memory
+     * that is not compact yet moves at least one chunk, even if the chunks
+     * skipped before it or the time it takes go over the budget, so that the
+     * compaction always makes progress.
+     */
+    long step(long unitBudget, long nanoBudget)
+    {
+        long start = System.nanoTime();
+        fragmentationBefore = fragmentation(memory);
+        unitsMoved = 0;
+        chunksMoved = 0;
+        long cost = 0; // The budget used up by the chunks that were moved or skipped
+
+        // The chunks may have been allocated, freed and merged since the last step, so the cursor may now be
+        // in the middle of a chunk, in which case the scan starts again
+        int capacity = memory.capacity();
+        if (cursor >= capacity || !memory.isChunkStart(cursor))
+            cursor = 0;
+
+        // The memory is compact if it has no holes, or only one at its end, so there's no chunk to move
+        int holes = memory.holeCount();
+        if (holes == 0 || holes == 1 && memory.isHole(capacity - 1))
+        {
+            fragmentationAfter = fragmentationBefore;
+            return 0;
+        }
+
+        // Otherwise some hole has a chunk right after it, which the scan reaches within one pass from the cursor
+        while (true)
+        {
+            // The budget only stops the step once it has moved a chunk
+            if (chunksMoved > 0 && (cost >= unitBudget
+                    || nanoBudget != Long.MAX_VALUE && System.nanoTime() - start >= nanoBudget))
+                break;
+
+            // The allocated chunks that are not right after a hole stay where they are
+            if (!memory.isHole(cursor))
+            {
+                cost++;
+                cursor += memory.chunkSize(cursor);
+                if (cursor == capacity)
+                {
+                    // The pass is done, and the next one starts on the next step unless no chunk has moved yet
+                    cursor = 0;
+                    if (chunksMoved > 0)
+                        break;
+                }
+                continue;
+            }
+
+            // A hole at the end of the memory means that the pass is done as well
+            int chunk = cursor + memory.chunkSize(cursor);
+            if (chunk == capacity)
+            {
+                cursor = 0;
+                if (chunksMoved > 0)
+                    break;
+                continue;
+            }
+
+            int size = memory.chunkSize(chunk);
+            if (chunksMoved > 0 && cost + size > unitBudget)
+                break;
+
+            // Moves the chunk right after the hole down to the start of the hole, after which the hole starts right after the chunk
+            int to = memory.slideDown(chunk);
+            if (mover != null)
+                mover.move(chunk, to, size);
+            relocate(chunk, to);
+
+            cost += size;
+            unitsMoved += size;
+            chunksMoved++;
+            cursor = to + size;
+        }
+
+        fragmentationAfter = fragmentation(memory);
+        return unitsMoved;
+    }
+
+    // Returns the external fragmentation of the memory right before the last step
+    double fragmentationBefore()
+    {
+        return fragmentationBefore;
+    }
+
+    // Returns the external fragmentation of the memory right after the last step
+    double fragmentationAfter()
+    {
+        return fragmentationAfter;
+    }
+
+    // Returns the number of units moved by the last step
+    long unitsMoved()
+    {
+        return unitsMoved;
+    }
+
+    // Returns the number of chunks moved by the last step
+    int chunksMoved()
+    {
+        return chunksMoved;
+    }
+
+    // Returns the current offset of the chunk that had the given offset before the relocations were cleared,
+    // which is the same offset if the chunk has not moved since
+    int relocation(int offset)
+    {
+        return relocations.get(offset, offset);
+    }
+
+    // Returns the number of chunks that have moved since the relocations were cleared
+    int relocationCount()
+    {
+        return relocations.size();
+    }
+
+    // Forgets all the moves, after the owners of the chunks have updated their offsets,
+    // which lets the memory allocate and free again
+    void clearRelocations()
+    {
+        relocations.clear();
+        origins.clear();
+        memory.clearMoves();
+    }
+
+    // Adds the move of a chunk from the given offset to the given offset to the relocation map
+    private void relocate(int from, int to)
+    {
+        int origin = origins.remove(from, from);
+        relocations.put(origin, to);
+        origins.put(to, origin);
+    }
+
+    // Open addressing hash map from offsets to offsets, with linear probing, in two int arrays
+    private static final class OffsetMap
+    {
+        private static final int EMPTY = -1; // The key of the empty entries, since offsets are never negative
+
+        private int[] keys = new int[16];
+        private int[] values = new int[16];
+        private int size = 0;
+
+        OffsetMap()
+        {
+            Arrays.fill(keys, EMPTY);
+        }
+
+        int size()
+        {
+            return size;
+        }
+
+        // Returns the value of the given key, or the given value if the key is not in the map
+        int get(int key, int missing)
+        {
+            int i = indexOf(key);
+            return keys[i] == key ? values[i] : missing;
+        }
+
+        void put(int key, int value)
+        {
+            int i = indexOf(key);
+            if (keys[i] != key)
+            {
+                if (2 * (size + 1) > keys.length)
+                {
+                    resize();
+                    i = indexOf(key);
+                }
+                keys[i] = key;
+                size++;
+            }
+            values[i] = value;
+        }
+
+        // Removes the given key and returns its value, or the given value if the key is not in the map
+        int remove(int key, int missing)
+        {
+            int i = indexOf(key);
+            if (keys[i] != key)
+                return missing;
+            int value = values[i];
+            size--;
+
+            // Moves back the entries after it that would no longer be found (backward shift deletion)
+            int mask = keys.length - 1;
+            int hole = i;
+            for (int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask)
+            {
+                int home = hash(keys[j]) & mask;
+                if (((j - home) & mask) >= ((j - hole) & mask))
+                {
+                    keys[hole] = keys[j];
+                    values[hole] = values[j];
+                    hole = j;
+                }
+            }
+            keys[hole] = EMPTY;
+            return value;
+        }
+
+        void clear()
+        {
+            Arrays.fill(keys, EMPTY);
+            size = 0;
+        }
+
+        // Returns the index of the given key, or of the empty entry where it would go
+        private int indexOf(int key)
+        {
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            while (keys[i] != EMPTY && keys[i] != key)
+                i = (i + 1) & mask;
+            return i;
+        }
+
+        private void resize()
+        {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new int[2 * oldKeys.length];
+            values = new int[2 * oldKeys.length];
+            Arrays.fill(keys, EMPTY);
+            for (int i = 0; i < oldKeys.length; i++)
+            {
+                if (oldKeys[i] != EMPTY)
+                {
+                    int j = indexOf(oldKeys[i]);
+                    keys[j] = oldKeys[i];
+                    values[j] = oldValues[i];
+                }
+            }
+        }
+
+        private static int hash(int key)
+        {
+            return key * 0x9E3779B9 >>> 7 ^ key;
+        }
+    }
+
+    // Driver Method: fragments a memory with random allocations and frees and then compacts it step by step,
+    // printing the fragmentation before and after every step
+    public static void main(String[] args)
+    {
+        int capacity = 1 << 20;
+        OnlineAllocator memory = new OnlineAllocator(capacity, FitPolicy.FIRST_FIT);
+        Random random = new Random(42);
+
+        // Fills the memory with chunks of 1 to 512 units and frees every other one, leaving many small holes
+        int offsets[] = new int[capacity];
+        int count = 0;
+        for (int offset = memory.allocate(1 + random.nextInt(512)); offset != Allocator.NOT_ALLOCATED;
+             offset = memory.allocate(1 + random.nextInt(512)))
+            offsets[count++] = offset;
+        for (int i = 0; i < count; i += 2)
+            memory.free(offsets[i]);
+
+        System.out.printf("%d chunks, %d holes, free space %d, largest hole %d%n",
+                count - (count + 1) / 2, memory.holeCount(), memory.freeSpace(), memory.largestHole());
+
+        // Compacts in steps of at most 64K units, about 6% of the memory
+        Compactor compactor = new Compactor(memory, null);
+        for (int step = 1; memory.holeCount() > 1; step++)
+        {
+            compactor.step(1 << 16, Long.MAX_VALUE);
+            System.out.printf("step %2d: moved %6d units in %4d chunks, fragmentation %.4f -> %.4f, largest hole %d%n",
+                    step, compactor.unitsMoved(), compactor.chunksMoved(),
+                    compactor.fragmentationBefore(), compactor.fragmentationAfter(), memory.largestHole());
+        }
+
+        // The chunks that were not freed are now at their relocated offsets
+        for (int i = 1; i < count; i += 2)
+            offsets[i] = compactor.relocation(offsets[i]);
+        compactor.clearRelocations();
+    }
+}
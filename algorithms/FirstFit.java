@@ -1,7 +1,56 @@
+package algorithms;
+
 import java.util.ArrayList;
 
-public class FirstFit
+public class FirstFit implements Allocator
 {
+    // The ways that the first block that a process fits can be searched for
+    enum Search
+    {
+        LINEAR, // Checks the blocks one by one, starting from block 0
+        SEGMENT_TREE, // Descends a segment tree over the available space of the blocks
+        VECTOR // Checks the blocks several at a time with SIMD instructions, starting from block 0
+    }
+
+    private final Search search; // The way that this allocator searches for the first block
+    private AllocationMetrics metrics = null; // The metrics that the requests are recorded in, or null if they are not recorded
+
+    // Constructor of the FirstFit class, which searches with a segment tree
+    FirstFit()
+    {
+        this(Search.SEGMENT_TREE);
+    }
+
+    // Constructor of the FirstFit class
+    // Takes the way that the first block that a process fits is searched for as a parameter
+    FirstFit(Search search)
+    {
+        this.search = search;
+    }
+
+    // Makes the allocator record its requests in the given metrics, or stop recording them if it's null
+    void setMetrics(AllocationMetrics metrics)
+    {
+        this.metrics = metrics;
+    }
+
+    // Allocates memory to blocks according to the first fit algorithm,
+    // the available space of the allocated blocks is reduced in sizeOfBlocks
+    @Override
+    public void allocate(int sizeOfBlocks[], int sizeOfProcesses[], int memoryAllocation[])
+    {
+        if (search == Search.LINEAR)
+            allocateLinear(sizeOfBlocks, sizeOfProcesses, memoryAllocation, metrics);
+        else if (search == Search.VECTOR)
+            allocateVector(sizeOfBlocks, sizeOfProcesses, memoryAllocation, metrics);
+        else
+            allocateSegmentTree(sizeOfBlocks, sizeOfProcesses, memoryAllocation, metrics);
+
+        // Records how fragmented the available space of the blocks is after the allocation
+        if (metrics != null)
+            metrics.recordFragmentation(sizeOfBlocks);
+    }
+
     /*
      * Method to allocate memory to blocks according to the first fit
      * algorithm. It should return an ArrayList of Integers, where the
@@ -9,20 +58,46 @@ public class FirstFit
      * number (also zero-indexed).
      */
     static ArrayList<Integer> firstFit(int sizeOfBlocks[], int sizeOfProcesses[])
+    {
+        return Allocator.toArrayList(new FirstFit(Search.LINEAR).allocate(sizeOfBlocks, sizeOfProcesses));
+    }
+
+    /*
+     * Method to allocate memory to blocks according to the first fit
+     * algorithm, using a segment tree over the available space of the blocks
+     * instead of checking them one by one. It returns exactly the same
+     * allocation as the firstFit method.
+     */
+    static ArrayList<Integer> firstFitIndexed(int sizeOfBlocks[], int sizeOfProcesses[])
+    {
+        return Allocator.toArrayList(new FirstFit(Search.SEGMENT_TREE).allocate(sizeOfBlocks, sizeOfProcesses));
+    }
+
+    /*
+     * Method to allocate memory to blocks according to the first fit
+     * algorithm, comparing several blocks at a time with SIMD instructions
+     * when the Vector API is available. It returns exactly the same
+     * allocation as the firstFit method.
+     */
+    static ArrayList<Integer> firstFitVector(int sizeOfBlocks[], int sizeOfProcesses[])
+    {
+        return Allocator.toArrayList(new FirstFit(Search.VECTOR).allocate(sizeOfBlocks, sizeOfProcesses));
+    }
+
+    // Allocates memory to blocks by checking the blocks one by one for every process
+    private static void allocateLinear(int sizeOfBlocks[], int sizeOfProcesses[], int memoryAllocation[], AllocationMetrics metrics)
     {
         int n = sizeOfProcesses.length; // Number of total processes
         int m = sizeOfBlocks.length; // Number of total blocks in memory
 
-        // Holds the id of the block allocated to the processes
-        ArrayList<Integer> memoryAllocation = new ArrayList<>();
-
-        // Initializes the Array list with "-255" which means that the process is not allocated at the start
-        for (int i = 0; i < n; i++)
-            memoryAllocation.add(-255);
+        // Initializes the memory allocation with NOT_ALLOCATED which means that the process is not allocated at the start
+        Allocator.clear(memoryAllocation, n);
 
         // Finds the first suitable block that each process fits according to its available size
         for (int i = 0; i < n; i++)
         {
+            long start = metrics != null ? System.nanoTime() : 0; // The time that the search for this process started
+
             boolean blockFound = false;
             int j = 0; // Id of the memory block, starting from 0 on each iteration
 
@@ -32,7 +107,7 @@ public class FirstFit
                 if (sizeOfBlocks[j] >= sizeOfProcesses[i]) // Checks if the current process fits in this memory block
                 {
                     // If a block that the current process fits was found, allocates block with id j for process with id i and reduces available memory in that block
-                    memoryAllocation.set(i, j);
+                    memoryAllocation[i] = j;
                     sizeOfBlocks[j] -= sizeOfProcesses[i];
                     blockFound = true;
                 }
@@ -40,28 +115,101 @@ public class FirstFit
                 else  // Else continue searching for a block
                     j++;
             }
+
+            // Records the number of blocks checked and the time that the search took, if the metrics are recorded
+            if (metrics != null)
+            {
+                metrics.recordProbes(blockFound ? j + 1 : j);
+                metrics.recordRequest(System.nanoTime() - start, memoryAllocation[i] != NOT_ALLOCATED);
+            }
         }
+    }
 
-        return memoryAllocation;
+    // Allocates memory to blocks by searching a segment tree for every process
+    private static void allocateSegmentTree(int sizeOfBlocks[], int sizeOfProcesses[], int memoryAllocation[], AllocationMetrics metrics)
+    {
+        // In this implementation of the first-fit algorithm, every node of the segment tree holds the
+        // maximum available space of the blocks in its range. That way, the first block that a process fits
+        // is found by descending from the root into the leftmost subtree that is big enough, in O(log(m)) time,
+        // and after the allocation only the path from that block up to the root has to be updated.
+
+        // Finally, with this implementation the overall time complexity will be O(m + nlogm)
+        // instead of the O(nm) of the linear search.
+
+        int n = sizeOfProcesses.length; // Number of total processes
+
+        // Initializes the memory allocation with NOT_ALLOCATED which means that the process is not allocated at the start
+        Allocator.clear(memoryAllocation, n);
+
+        // The segment tree that contains the available memory space of every block
+        MaxSegmentTree blocks = new MaxSegmentTree(sizeOfBlocks);
+
+        // Finds the first suitable block that each process fits according to its available size
+        for (int i = 0; i < n; i++)
+        {
+            long start = metrics != null ? System.nanoTime() : 0; // The time that the search for this process started
+
+            int j = blocks.firstAtLeast(0, sizeOfProcesses[i]); // Id of the first block that the current process fits
+
+            // If a block that the current process fits was found, allocates block with id j for process with id i and reduces available memory in that block
+            if (j != -1)
+            {
+                memoryAllocation[i] = j;
+                sizeOfBlocks[j] -= sizeOfProcesses[i];
+                blocks.set(j, sizeOfBlocks[j]);
+            }
+
+            // Records the number of tree nodes visited and the time that the search took, if the metrics are recorded
+            if (metrics != null)
+            {
+                metrics.recordProbes(blocks.probes());
+                metrics.recordRequest(System.nanoTime() - start, memoryAllocation[i] != NOT_ALLOCATED);
+            }
+        }
     }
 
-    // Method to print the memory allocation
-    public static void printMemoryAllocation(ArrayList<Integer> memAllocation) {
-        System.out.println("Process No.\tBlock No.");
-        System.out.println("===========\t=========");
-        for (int i = 0; i < memAllocation.size(); i++)
+    // Allocates memory to blocks by scanning them several at a time with BlockScan for every process
+    private static void allocateVector(int sizeOfBlocks[], int sizeOfProcesses[], int memoryAllocation[], AllocationMetrics metrics)
+    {
+        // In this implementation of the first-fit algorithm, the blocks are still checked in order starting from
+        // block 0, but BlockScan compares the available space of several consecutive blocks with the size of the
+        // process in one SIMD instruction. The overall time complexity is still O(nm), but for pools that are
+        // too small for the segment tree to pay off the scan is several times faster than checking one block at a time.
+
+        int n = sizeOfProcesses.length; // Number of total processes
+        int m = sizeOfBlocks.length; // Number of total blocks in memory
+
+        // Initializes the memory allocation with NOT_ALLOCATED which means that the process is not allocated at the start
+        Allocator.clear(memoryAllocation, n);
+
+        // Finds the first suitable block that each process fits according to its available size
+        for (int i = 0; i < n; i++)
         {
-            System.out.print(" " + i + "\t\t");
-            // if a process has been allocated position -255, it means that it
-            // has not been actually allocated
-            if (memAllocation.get(i) != -255)
-                System.out.print(memAllocation.get(i));
-            else
-                System.out.print("Not Allocated");
-            System.out.println();
+            long start = metrics != null ? System.nanoTime() : 0; // The time that the search for this process started
+
+            int j = BlockScan.firstAtLeast(sizeOfBlocks, 0, m, sizeOfProcesses[i]); // Id of the first block that the current process fits
+
+            // If a block that the current process fits was found, allocates block with id j for process with id i and reduces available memory in that block
+            if (j != -1)
+            {
+                memoryAllocation[i] = j;
+                sizeOfBlocks[j] -= sizeOfProcesses[i];
+            }
+
+            // Records the number of blocks checked and the time that the search took, if the metrics are recorded
+            if (metrics != null)
+            {
+                metrics.recordProbes(j != -1 ? j + 1 : m);
+                metrics.recordRequest(System.nanoTime() - start, memoryAllocation[i] != NOT_ALLOCATED);
+            }
         }
     }
 
+    // Method to print the memory allocation
+    public static void printMemoryAllocation(ArrayList<Integer> memAllocation) {
+        Allocator.printMemoryAllocation(Allocator.toArray(memAllocation));
+    }
+
     // Driver Method to test your algorithm with a simple example
     public static void main(String[] args)
     {
@@ -0,0 +1,139 @@
+package algorithms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+// Offline (batch) mode of the placement strategies, for batches whose order doesn't matter:
+// the processes are allocated from the biggest to the smallest, instead of in the order that they are given,
+// so the big processes are placed while there are still big blocks for them and the small ones fill the gaps
+// that are left (first-fit-decreasing and best-fit-decreasing, as in bin packing).
+//
+// The processes are sorted without boxing them: the size and the id of every process are packed in a long,
+// the inverted size in the high 32 bits and the id in the low 32 bits, so sorting the longs (a primitive sort)
+// orders the processes by descending size and, in case their size is equal, by ascending id.
+// The sorted sizes are allocated with the wrapped allocator and the allocation of every sorted process is then
+// written back at the id that the process had in the batch.
+public class FitDecreasing implements Allocator
+{
+    private final Allocator allocator; // The allocator that places the sorted processes
+
+    // Constructor of the FitDecreasing class
+    // Takes the allocator that places the processes after they are sorted as a parameter
+    FitDecreasing(Allocator allocator)
+    {
+        this.allocator = allocator;
+    }
+
+    // Allocates memory to blocks with the wrapped allocator, from the biggest to the smallest process,
+    // sizeOfBlocks is reduced the same way as the wrapped allocator reduces it
+    @Override
+    public void allocate(int sizeOfBlocks[], int sizeOfProcesses[], int memoryAllocation[])
+    {
+        int n = sizeOfProcesses.length; // Number of total processes
+
+        // Sorts the processes by descending size, keeping their ids in the low 32 bits
+        long order[] = new long[n];
+        for (int i = 0; i < n; i++)
+            order[i] = ((long) ~sizeOfProcesses[i] << 32) | i;
+        Arrays.sort(order);
+
+        int sortedProcesses[] = new int[n];
+        for (int k = 0; k < n; k++)
+            sortedProcesses[k] = sizeOfProcesses[(int) order[k]];
+
+        int sortedAllocation[] = allocator.allocate(sizeOfBlocks, sortedProcesses);
+
+        // Maps the allocation of every sorted process back to the id of the process
+        for (int k = 0; k < n; k++)
+            memoryAllocation[(int) order[k]] = sortedAllocation[k];
+    }
+
+    /*
+     * Method to allocate memory to blocks according to the first fit
+     * decreasing algorithm. It returns an ArrayList of Integers, where the
+     * index is the process ID (zero-indexed) and the value is the block
+     * number (also zero-indexed), the same way as the firstFit method.
+     */
+    static ArrayList<Integer> firstFitDecreasing(int sizeOfBlocks[], int sizeOfProcesses[])
+    {
+        return Allocator.toArrayList(new FitDecreasing(new FirstFit()).allocate(sizeOfBlocks, sizeOfProcesses));
+    }
+
+    /*
+     * Method to allocate memory to blocks according to the best fit
+     * decreasing algorithm. It returns an ArrayList of Integers, where the
+     * index is the process ID (zero-indexed) and the value is the block
+     * number (also zero-indexed), the same way as the bestFit method.
+     */
+    static ArrayList<Integer> bestFitDecreasing(int sizeOfBlocks[], int sizeOfProcesses[])
+    {
+        return Allocator.toArrayList(new FitDecreasing(new BestFit()).allocate(sizeOfBlocks, sizeOfProcesses));
+    }
+
+    // Allocates the processes with the given allocator both in their order and from the biggest to the smallest,
+    // and prints how many processes each one allocated and how much free space each one left
+    static void printComparison(String name, Allocator allocator, int sizeOfBlocks[], int sizeOfProcesses[])
+    {
+        int online[] = allocator.allocate(sizeOfBlocks.clone(), sizeOfProcesses);
+        int offline[] = new FitDecreasing(allocator).allocate(sizeOfBlocks.clone(), sizeOfProcesses);
+
+        long totalSpace = 0;
+        for (int size : sizeOfBlocks)
+            totalSpace += size;
+
+        int onlineCount = 0, offlineCount = 0; // The processes allocated in each order
+        long onlineFree = totalSpace, offlineFree = totalSpace; // The free space left in each order
+        for (int i = 0; i < sizeOfProcesses.length; i++)
+        {
+            if (online[i] != NOT_ALLOCATED)
+            {
+                onlineCount++;
+                onlineFree -= sizeOfProcesses[i];
+            }
+            if (offline[i] != NOT_ALLOCATED)
+            {
+                offlineCount++;
+                offlineFree -= sizeOfProcesses[i];
+            }
+        }
+
+        System.out.printf("%-24s allocated %d -> %d of %d processes (%+d), free space left %d -> %d (%+d)%n",
+                name, onlineCount, offlineCount, sizeOfProcesses.length, offlineCount - onlineCount,
+                onlineFree, offlineFree, offlineFree - onlineFree);
+    }
+
+    // Driver Method to compare the order of the batch with the decreasing order,
+    // on the example of the other algorithms and on a batch of 100000 random blocks and processes
+    public static void main(String[] args)
+    {
+        int sizeOfBlocks[] = {200, 500, 100, 300, 600};
+        int sizeOfProcesses[] = {214, 415, 112, 425};
+
+        System.out.println("Worst fit decreasing:");
+        Allocator.printMemoryAllocation(new FitDecreasing(new WorstFit()).allocate(sizeOfBlocks, sizeOfProcesses));
+        System.out.println();
+
+        System.out.println("Example of 5 blocks and 4 processes (in order -> decreasing):");
+        printComparison("First fit", new FirstFit(), sizeOfBlocks, sizeOfProcesses);
+        printComparison("Best fit", new BestFit(), sizeOfBlocks, sizeOfProcesses);
+        printComparison("Worst fit", new WorstFit(), sizeOfBlocks, sizeOfProcesses);
+
+        // Blocks and processes with sizes drawn uniformly from 1 to 1024, so that not all of them fit
+        Random random = new Random(42);
+        int m = 100000;
+        int randomBlocks[] = new int[m];
+        int randomProcesses[] = new int[m];
+        for (int i = 0; i < m; i++)
+        {
+            randomBlocks[i] = 1 + random.nextInt(1024);
+            randomProcesses[i] = 1 + random.nextInt(1024);
+        }
+
+        System.out.println();
+        System.out.println("100000 random blocks and processes (in order -> decreasing):");
+        printComparison("First fit", new FirstFit(), randomBlocks, randomProcesses);
+        printComparison("Best fit", new BestFit(), randomBlocks, randomProcesses);
+        printComparison("Worst fit", new WorstFit(), randomBlocks, randomProcesses);
+    }
+}
@@ -0,0 +1,10 @@
+package algorithms;
+
+// The policies that choose which free block (or hole) a process is allocated to
+enum FitPolicy
+{
+    FIRST_FIT, // The first block, starting from the start of the memory, that the process fits
+    NEXT_FIT, // The first block, starting from the last allocated block, that the process fits
+    BEST_FIT, // The smallest block that the process fits
+    WORST_FIT // The biggest block, if the process fits in it
+}
@@ -0,0 +1,97 @@
+package algorithms;
+
+import java.util.Arrays;
+
+// Array based segment tree that keeps, for every range of blocks, the maximum available memory space among them.
+// It is used in order to find the first block (with the smallest id) that a process fits, starting from any
+// block id, in O(log(m)) time instead of checking the blocks one by one.
+class MaxSegmentTree
+{
+    private final int blocks; // Number of blocks stored in the tree
+    private final int leaves; // Number of leaves, which is the smallest power of two that is >= the number of blocks
+
+    // The nodes of the tree, tree[1] is the root and the children of node k are the nodes 2k and 2k+1.
+    // The leaves start at index "leaves", so the block with id j is stored at tree[leaves + j].
+    private final int[] tree;
+
+    private int probes; // The number of nodes that the last search compared with the size of the process
+
+    // Constructor of the MaxSegmentTree class
+    // Takes the available space of every block as a parameter and builds the tree in O(m) time
+    MaxSegmentTree(int sizeOfBlocks[])
+    {
+        blocks = sizeOfBlocks.length;
+
+        int leaves = 1;
+        while (leaves < blocks)
+            leaves <<= 1;
+        this.leaves = leaves;
+
+        tree = new int[2 * leaves];
+
+        // The leaves that don't correspond to a block get the minimum value, so that no process ever fits in them
+        Arrays.fill(tree, leaves, 2 * leaves, Integer.MIN_VALUE);
+        System.arraycopy(sizeOfBlocks, 0, tree, leaves, blocks);
+
+        // Every internal node keeps the maximum of its two children
+        for (int k = leaves - 1; k > 0; k--)
+            tree[k] = Math.max(tree[2 * k], tree[2 * k + 1]);
+    }
+
+    // Returns the available space of the block with the given id
+    int get(int blockId)
+    {
+        return tree[leaves + blockId];
+    }
+
+    // Sets the available space of the block with the given id and updates its ancestors in O(log(m)) time
+    void set(int blockId, int availableSpace)
+    {
+        int k = leaves + blockId;
+        tree[k] = availableSpace;
+
+        for (k >>= 1; k > 0; k >>= 1)
+            tree[k] = Math.max(tree[2 * k], tree[2 * k + 1]);
+    }
+
+    // Returns the smallest block id that is >= from and has available space >= size, or -1 if there is no such block.
+    // First it climbs from the leaf of the block "from" to the first subtree on its right whose maximum is big enough
+    // and then it descends into the leftmost leaf of that subtree that is big enough.
+    int firstAtLeast(int from, int size)
+    {
+        probes = 0;
+        if (from >= blocks)
+            return -1;
+
+        int k = leaves + from;
+        probes++;
+        while (tree[k] < size)
+        {
+            // While k is a right child, there is nothing left to check in its parent either, so go up
+            while ((k & 1) == 1)
+                k >>= 1;
+
+            // Climbed past the root, which means that no block on the right of "from" is big enough
+            if (k == 0)
+                return -1;
+
+            k++; // Move to the right sibling, which covers the blocks right after the ones already checked
+            probes++;
+        }
+
+        // Descend into the leftmost leaf that has available space >= size
+        while (k < leaves)
+        {
+            k = tree[2 * k] >= size ? 2 * k : 2 * k + 1;
+            probes++;
+        }
+
+        return k - leaves;
+    }
+
+    // Returns the number of nodes that the last firstAtLeast compared with the size of the process
+    int probes()
+    {
+        return probes;
+    }
+}
@@ -1,7 +1,56 @@
+package algorithms;
+
 import java.util.ArrayList;
 
-public class NextFit
+public class NextFit implements Allocator
 {
+    // The ways that the next block that a process fits can be searched for
+    enum Search
+    {
+        LINEAR, // Checks the blocks one by one, starting from the block pointer
+        SEGMENT_TREE, // Queries a segment tree over the available space of the blocks
+        VECTOR // Checks the blocks several at a time with SIMD instructions, starting from the block pointer
+    }
+
+    private final Search search; // The way that this allocator searches for the next block
+    private AllocationMetrics metrics = null; // The metrics that the requests are recorded in, or null if they are not recorded
+
+    // Constructor of the NextFit class, which searches with a segment tree
+    NextFit()
+    {
+        this(Search.SEGMENT_TREE);
+    }
+
+    // Constructor of the NextFit class
+    // Takes the way that the next block that a process fits is searched for as a parameter
+    NextFit(Search search)
+    {
+        this.search = search;
+    }
+
+    // Makes the allocator record its requests in the given metrics, or stop recording them if it's null
+    void setMetrics(AllocationMetrics metrics)
+    {
+        this.metrics = metrics;
+    }
+
+    // Allocates memory to blocks according to the next fit algorithm,
+    // the available space of the allocated blocks is reduced in sizeOfBlocks
+    @Override
+    public void allocate(int sizeOfBlocks[], int sizeOfProcesses[], int memoryAllocation[])
+    {
+        if (search == Search.LINEAR)
+            allocateLinear(sizeOfBlocks, sizeOfProcesses, memoryAllocation, metrics);
+        else if (search == Search.VECTOR)
+            allocateVector(sizeOfBlocks, sizeOfProcesses, memoryAllocation, metrics);
+        else
+            allocateSegmentTree(sizeOfBlocks, sizeOfProcesses, memoryAllocation, metrics);
+
+        // Records how fragmented the available space of the blocks is after the allocation
+        if (metrics != null)
+            metrics.recordFragmentation(sizeOfBlocks);
+    }
+
     /*
      * Method to allocate memory to blocks according to the next fit
      * algorithm. It should return an ArrayList of Integers, where the
@@ -9,16 +58,40 @@ public class NextFit
      * number (also zero-indexed).
      */
     static ArrayList<Integer> nextFit(int sizeOfBlocks[], int sizeOfProcesses[])
+    {
+        return Allocator.toArrayList(new NextFit(Search.LINEAR).allocate(sizeOfBlocks, sizeOfProcesses));
+    }
+
+    /*
+     * Method to allocate memory to blocks according to the next fit
+     * algorithm, using a segment tree over the available space of the blocks
+     * instead of checking them one by one. It returns exactly the same
+     * allocation as the nextFit method.
+     */
+    static ArrayList<Integer> nextFitIndexed(int sizeOfBlocks[], int sizeOfProcesses[])
+    {
+        return Allocator.toArrayList(new NextFit(Search.SEGMENT_TREE).allocate(sizeOfBlocks, sizeOfProcesses));
+    }
+
+    /*
+     * Method to allocate memory to blocks according to the next fit
+     * algorithm, comparing several blocks at a time with SIMD instructions
+     * when the Vector API is available. It returns exactly the same
+     * allocation as the nextFit method.
+     */
+    static ArrayList<Integer> nextFitVector(int sizeOfBlocks[], int sizeOfProcesses[])
+    {
+        return Allocator.toArrayList(new NextFit(Search.VECTOR).allocate(sizeOfBlocks, sizeOfProcesses));
+    }
+
+    // Allocates memory to blocks by checking the blocks one by one, starting from the block pointer, for every process
+    private static void allocateLinear(int sizeOfBlocks[], int sizeOfProcesses[], int memoryAllocation[], AllocationMetrics metrics)
     {
         int n = sizeOfProcesses.length; // Number of total processes
         int m = sizeOfBlocks.length; // Number of total blocks in memory
 
-        // Holds the id of the block allocated to the processes
-        ArrayList<Integer> memoryAllocation = new ArrayList<>();
-
-        // Initializes the Array list with "-255" which means that the process is not allocated at the start
-        for (int i = 0; i < n; i++)
-            memoryAllocation.add(-255);
+        // Initializes the memory allocation with NOT_ALLOCATED which means that the process is not allocated at the start
+        Allocator.clear(memoryAllocation, n);
 
         // The id of the block that the algorithm starts searching from on each iteration
         // Starting from 0 since no process is allocated at the start
@@ -27,19 +100,21 @@ public class NextFit
         // Running through every process and allocating a block for each on of them
         for (int i = 0; i < n; i++)
         {
+            long start = metrics != null ? System.nanoTime() : 0; // The time that the search for this process started
+
             int blocksChecked = 0; // Total blocks checked for this process
             boolean blockFound = false;
 
             // Finds the first block that the current process fits starting
             // from the block that the last process was allocated to. If the process can't fit in any of the blocks then
-            // no block id saved in the memoryAllocation arraylist and the iteration continues from where it left before
+            // no block id saved in the memoryAllocation array and the iteration continues from where it left before
             while(!blockFound && blocksChecked < m)
             {
                 if (sizeOfBlocks[blockPointer] >= sizeOfProcesses[i]) // Checks if the current process fits in this memory block
                 {
                     // If a block that the current process fits was found,
                     // allocates the block found for the process with id i and reduces available memory in that block
-                    memoryAllocation.set(i, blockPointer);
+                    memoryAllocation[i] = blockPointer;
                     sizeOfBlocks[blockPointer] -= sizeOfProcesses[i];
                     blockFound = true;
                 }
@@ -54,28 +129,131 @@ public class NextFit
                     blocksChecked++;
                 }
             }
+
+            // Records the number of blocks checked and the time that the search took, if the metrics are recorded
+            if (metrics != null)
+            {
+                metrics.recordProbes(blockFound ? blocksChecked + 1 : blocksChecked);
+                metrics.recordRequest(System.nanoTime() - start, memoryAllocation[i] != NOT_ALLOCATED);
+            }
         }
+    }
+
+    // Allocates memory to blocks by querying a segment tree, starting from the block pointer, for every process
+    private static void allocateSegmentTree(int sizeOfBlocks[], int sizeOfProcesses[], int memoryAllocation[], AllocationMetrics metrics)
+    {
+        // In this implementation of the next-fit algorithm, the search that starts from the block pointer
+        // and wraps around to the top blocks is split in two queries on the segment tree:
+        // the first block at or after the block pointer that the process fits and, if there is no such block,
+        // the first block from the start of the memory that the process fits (which is then always before the pointer).
+        // Each of these queries costs O(log(m)) time, so the overall time complexity will be O(m + nlogm).
+
+        int n = sizeOfProcesses.length; // Number of total processes
+
+        // Initializes the memory allocation with NOT_ALLOCATED which means that the process is not allocated at the start
+        Allocator.clear(memoryAllocation, n);
+
+        // The segment tree that contains the available memory space of every block
+        MaxSegmentTree blocks = new MaxSegmentTree(sizeOfBlocks);
 
-        return memoryAllocation;
+        // The id of the block that the algorithm starts searching from on each iteration
+        // Starting from 0 since no process is allocated at the start
+        int blockPointer = 0;
+
+        // Running through every process and allocating a block for each on of them
+        for (int i = 0; i < n; i++)
+        {
+            long start = metrics != null ? System.nanoTime() : 0; // The time that the search for this process started
+
+            // Finds the first block that the current process fits starting from the block pointer
+            int blockFound = blocks.firstAtLeast(blockPointer, sizeOfProcesses[i]);
+            int nodesVisited = blocks.probes(); // The number of tree nodes that the queries visited
+
+            // If there is no such block, wraps around and searches the top blocks as well
+            if (blockFound == -1)
+            {
+                blockFound = blocks.firstAtLeast(0, sizeOfProcesses[i]);
+                nodesVisited += blocks.probes();
+            }
+
+            // If a block that the current process fits was found, allocates the block found for the process with id i,
+            // reduces available memory in that block and moves the block pointer to it.
+            // Else the block pointer stays where it was, since checking all the m blocks brings it back to the same block.
+            if (blockFound != -1)
+            {
+                memoryAllocation[i] = blockFound;
+                sizeOfBlocks[blockFound] -= sizeOfProcesses[i];
+                blocks.set(blockFound, sizeOfBlocks[blockFound]);
+                blockPointer = blockFound;
+            }
+
+            // Records the number of tree nodes visited and the time that the search took, if the metrics are recorded
+            if (metrics != null)
+            {
+                metrics.recordProbes(nodesVisited);
+                metrics.recordRequest(System.nanoTime() - start, memoryAllocation[i] != NOT_ALLOCATED);
+            }
+        }
     }
 
-    // Method to print the memory allocation
-    public static void printMemoryAllocation(ArrayList<Integer> memAllocation) {
-        System.out.println("Process No.\tBlock No.");
-        System.out.println("===========\t=========");
-        for (int i = 0; i < memAllocation.size(); i++)
+    // Allocates memory to blocks by scanning them several at a time with BlockScan, starting from the block pointer, for every process
+    private static void allocateVector(int sizeOfBlocks[], int sizeOfProcesses[], int memoryAllocation[], AllocationMetrics metrics)
+    {
+        // In this implementation of the next-fit algorithm, the search that starts from the block pointer
+        // and wraps around to the top blocks is split in two scans, the same way as the segment tree queries:
+        // the blocks from the block pointer to the bottom block and then the blocks from the top block to the pointer.
+        // BlockScan compares the available space of several consecutive blocks in one SIMD instruction, so the
+        // overall time complexity is still O(nm), but the scan is several times faster than checking one block at a time.
+
+        int n = sizeOfProcesses.length; // Number of total processes
+        int m = sizeOfBlocks.length; // Number of total blocks in memory
+
+        // Initializes the memory allocation with NOT_ALLOCATED which means that the process is not allocated at the start
+        Allocator.clear(memoryAllocation, n);
+
+        // The id of the block that the algorithm starts searching from on each iteration
+        // Starting from 0 since no process is allocated at the start
+        int blockPointer = 0;
+
+        // Running through every process and allocating a block for each on of them
+        for (int i = 0; i < n; i++)
         {
-            System.out.print(" " + i + "\t\t");
-            // if a process has been allocated position -255, it means that it
-            // has not been actually allocated
-            if (memAllocation.get(i) != -255)
-                System.out.print(memAllocation.get(i));
-            else
-                System.out.print("Not Allocated");
-            System.out.println();
+            long start = metrics != null ? System.nanoTime() : 0; // The time that the search for this process started
+
+            // Finds the first block that the current process fits starting from the block pointer
+            int blockFound = BlockScan.firstAtLeast(sizeOfBlocks, blockPointer, m, sizeOfProcesses[i]);
+
+            // If there is no such block, wraps around and scans the top blocks up to the block pointer
+            if (blockFound == -1)
+                blockFound = BlockScan.firstAtLeast(sizeOfBlocks, 0, blockPointer, sizeOfProcesses[i]);
+
+            // The number of blocks checked, counted from the block pointer the same way as the linear search does
+            int blocksChecked = blockFound == -1 ? m : (blockFound - blockPointer + m) % m + 1;
+
+            // If a block that the current process fits was found, allocates the block found for the process with id i,
+            // reduces available memory in that block and moves the block pointer to it.
+            // Else the block pointer stays where it was, since checking all the m blocks brings it back to the same block.
+            if (blockFound != -1)
+            {
+                memoryAllocation[i] = blockFound;
+                sizeOfBlocks[blockFound] -= sizeOfProcesses[i];
+                blockPointer = blockFound;
+            }
+
+            // Records the number of blocks checked and the time that the search took, if the metrics are recorded
+            if (metrics != null)
+            {
+                metrics.recordProbes(blocksChecked);
+                metrics.recordRequest(System.nanoTime() - start, memoryAllocation[i] != NOT_ALLOCATED);
+            }
         }
     }
 
+    // Method to print the memory allocation
+    public static void printMemoryAllocation(ArrayList<Integer> memAllocation) {
+        Allocator.printMemoryAllocation(Allocator.toArray(memAllocation));
+    }
+
     // Driver Method to test your algorithm with a simple example
     public static void main(String[] args)
     {
@@ -0,0 +1,325 @@
+package algorithms;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+// Arena that hands out real memory: slices of a direct (off-heap) ByteBuffer, chosen by one of the fit policies.
+// All the metadata of the arena lives in the buffer itself, next to the memory it describes, so allocating and
+// freeing creates no objects on the Java heap:
+//
+//   - the first 8 bytes of the buffer hold the first chunk of the free list and the chunk that next fit starts from
+//   - every chunk (allocated or free) starts with a 4 byte header and ends with a 4 byte footer, both holding
+//     the size of the chunk in bytes with the lowest bit set if it's allocated (boundary tags)
+//   - every free chunk holds the next and the previous chunk of the free list in the first 8 bytes after its header
+//
+// The payload of every chunk (the slice that's handed out) starts right after its header and is aligned to the
+// alignment of the arena, and the sizes of the chunks are multiples of the alignment, so every payload is aligned.
+// The free list is a doubly linked list in the order of the offsets of the chunks, like the holes of OnlineAllocator,
+// so first fit finds the free chunk with the smallest offset and next fit goes on through the memory from the chunk
+// it stopped at. The policies search it in O(f) time, f being the number of free chunks, a freed chunk is merged
+// with its neighbours in O(1) time and a freed chunk that has no free neighbours is inserted in O(f) time.
+// The free chunks are deliberately not indexed by size (or by offset), since the index would have to live in the
+// buffer as well, so best fit and worst fit walk the whole free list on every request. OnlineAllocator has the
+// O(log(f)) versions of the policies, over trees on the Java heap.
+//
+// The slice method wraps a slice in a new ByteBuffer (the bytes stay off-heap, but the view is a small object on the
+// Java heap). Code that must not create any objects reads and writes the slices through the one buffer returned by
+// buffer, with the absolute get and put methods, from the offset of the slice up to its payloadSize.
+class OffHeapArena
+{
+    private static final int HEADER = 4; // The size of the header (and of the footer) of a chunk
+    private static final int ALLOCATED = 1; // The bit of the boundary tags that is set for allocated chunks
+    private static final int NONE = -1; // The offset used for "no chunk"
+
+    // The offsets of the metadata of the arena
+    private static final int FREE_LIST = 0; // The first chunk of the free list
+    private static final int ROVER = 4; // The chunk that next fit starts searching from
+
+    private final ByteBuffer memory; // The off-heap memory, aligned to the alignment of the arena
+    private final FitPolicy policy; // The policy that chooses the free chunk that a request goes to
+    private final int alignment; // The alignment of every payload, a power of two that is at least 8
+    private final int minChunk; // The size of the smallest chunk, which fits the header, footer and free list links
+    private final int heapStart; // The offset of the first chunk
+    private final int heapEnd; // The offset right after the last chunk
+
+    // Constructor of the OffHeapArena class
+    // Takes the number of bytes of the arena, the alignment of the slices it hands out and the policy
+    // that chooses the free chunk that a request goes to as parameters
+    OffHeapArena(int capacity, int alignment, FitPolicy policy)
+    {
+        if (alignment < 8 || Integer.bitCount(alignment) != 1)
+            throw new IllegalArgumentException("alignment must be a power of two that is at least 8: " + alignment);
+        if (capacity <= 0 || capacity > Integer.MAX_VALUE - alignment)
+            throw new IllegalArgumentException("capacity must be positive and at most " + (Integer.MAX_VALUE - alignment) + ": " + capacity);
+
+        this.policy = policy;
+        this.alignment = alignment;
+        minChunk = Math.max(alignment, 4 * HEADER);
+
+        // Allocates a bit more memory, so that the part used can start at an aligned address
+        memory = ByteBuffer.allocateDirect(capacity + alignment).alignedSlice(alignment).order(ByteOrder.nativeOrder());
+
+        // The first chunk starts after the metadata of the arena, at the first offset whose payload is aligned
+        heapStart = ((ROVER + 2 * HEADER + alignment - 1) & -alignment) - HEADER;
+        heapEnd = heapStart + (memory.capacity() - heapStart) / alignment * alignment;
+        if (heapEnd - heapStart < minChunk)
+            throw new IllegalArgumentException("capacity is too small: " + capacity);
+
+        // At the start the whole arena is a single free chunk
+        memory.putInt(FREE_LIST, NONE);
+        setTags(heapStart, heapEnd - heapStart, false);
+        link(heapStart, NONE, NONE);
+        memory.putInt(ROVER, heapStart);
+    }
+
+    /*
+     * Allocates a slice of at least the given number of bytes and returns
+     * the offset of its first byte in the arena, which is the handle that
+     * frees it, or Allocator.NOT_ALLOCATED if there is no free chunk big
+     * enough. The slice itself is returned by the slice method.
+     */
+    int allocate(int size)
+    {
+        if (size <= 0)
+            throw new IllegalArgumentException("size must be positive: " + size);
+
+        // The size of the chunk, with its header and footer, rounded up to the alignment
+        long needed = ((long) size + 2 * HEADER + alignment - 1) & -alignment;
+        if (needed > heapEnd - heapStart)
+            return Allocator.NOT_ALLOCATED;
+        int chunkSize = Math.max((int) needed, minChunk);
+
+        int chunk = findChunk(chunkSize);
+        if (chunk == NONE)
+            return Allocator.NOT_ALLOCATED;
+
+        int freeSize = sizeOf(chunk);
+        if (freeSize - chunkSize >= minChunk)
+        {
+            // The request goes to the end of the free chunk, so the rest of it stays where it is in the free list
+            setTags(chunk, freeSize - chunkSize, false);
+            chunk += freeSize - chunkSize;
+        }
+        else
+        {
+            // The rest would be too small to be a chunk, so the request gets the whole free chunk
+            unlink(chunk);
+            chunkSize = freeSize;
+        }
+
+        setTags(chunk, chunkSize, true);
+        return chunk + HEADER;
+    }
+
+    // Returns the slice with the given offset, which shares its memory with the arena (no bytes are copied)
+    // and has as many bytes as the chunk it's stored in can hold
+    ByteBuffer slice(int offset)
+    {
+        return memory.slice(offset, payloadSize(offset)).order(ByteOrder.nativeOrder());
+    }
+
+    // Returns the number of bytes of the slice with the given offset, which is at least the size it was allocated with
+    int payloadSize(int offset)
+    {
+        return sizeOf(allocatedChunk(offset)) - 2 * HEADER;
+    }
+
+    // Returns the buffer of the whole arena, in which the slice with a given offset is the bytes from the offset
+    // up to the offset + its payloadSize. Writing outside of the slices corrupts the metadata of the arena.
+    ByteBuffer buffer()
+    {
+        return memory;
+    }
+
+    // Frees the slice with the given offset and merges its chunk with the free chunks right before and right after it.
+    // The headers of the chunks that are merged into the one before them are cleared, so that their offsets are no
+    // longer taken for chunks, e.g. if the slice is freed again.
+    void free(int offset)
+    {
+        int chunk = allocatedChunk(offset);
+        int size = sizeOf(chunk);
+        boolean linked = false; // Whether the merged chunk is already in the free list
+
+        // Merges with the free chunk right before, whose footer is right before the header of the chunk,
+        // which keeps its place in the free list
+        if (chunk > heapStart && (memory.getInt(chunk - HEADER) & ALLOCATED) == 0)
+        {
+            int previousSize = memory.getInt(chunk - HEADER);
+            memory.putInt(chunk, 0);
+            chunk -= previousSize;
+            size += previousSize;
+            linked = true;
+        }
+
+        // Merges with the free chunk right after, whose header is right after the footer of the chunk,
+        // and whose place in the free list the merged chunk takes if it's not in it yet
+        int next = chunk + size;
+        if (next < heapEnd && (memory.getInt(next) & ALLOCATED) == 0)
+        {
+            size += sizeOf(next);
+            int rover = memory.getInt(ROVER);
+            if (linked)
+                unlink(next);
+            else
+                link(chunk, previous(next), next(next));
+            memory.putInt(next, 0);
+            linked = true;
+
+            // Next fit goes on from the chunk that the rover was in
+            if (rover == next)
+                memory.putInt(ROVER, chunk);
+        }
+
+        setTags(chunk, size, false);
+        if (!linked)
+            insert(chunk);
+    }
+
+    // Returns the number of bytes of the arena that are in free chunks
+    long freeBytes()
+    {
+        long free = 0;
+        for (int chunk = memory.getInt(FREE_LIST); chunk != NONE; chunk = next(chunk))
+            free += sizeOf(chunk);
+        return free;
+    }
+
+    // Returns the free chunk that a chunk of the given size goes to according to the policy, or NONE if it doesn't fit anywhere
+    private int findChunk(int chunkSize)
+    {
+        int head = memory.getInt(FREE_LIST);
+        int found = NONE;
+
+        switch (policy)
+        {
+            case FIRST_FIT:
+                for (int chunk = head; chunk != NONE && found == NONE; chunk = next(chunk))
+                    if (sizeOf(chunk) >= chunkSize)
+                        found = chunk;
+                return found;
+
+            case NEXT_FIT:
+                // Searches from the rover to the end of the free list and then from the start of the free list to the rover
+                int rover = memory.getInt(ROVER);
+                if (rover == NONE)
+                    rover = head;
+                int chunk = rover;
+                do
+                {
+                    if (chunk == NONE)
+                        chunk = head;
+                    else if (sizeOf(chunk) >= chunkSize)
+                        found = chunk;
+                    else
+                        chunk = next(chunk);
+                }
+                while (found == NONE && chunk != rover);
+                memory.putInt(ROVER, found != NONE ? found : rover);
+                return found;
+
+            case BEST_FIT:
+                for (int c = head; c != NONE; c = next(c))
+                {
+                    int size = sizeOf(c);
+                    if (size >= chunkSize && (found == NONE || size < sizeOf(found)))
+                    {
+                        found = c;
+                        if (size == chunkSize) // Nothing fits better than an exact fit
+                            break;
+                    }
+                }
+                return found;
+
+            default:
+                for (int c = head; c != NONE; c = next(c))
+                    if (found == NONE || sizeOf(c) > sizeOf(found))
+                        found = c;
+                return found != NONE && sizeOf(found) >= chunkSize ? found : NONE;
+        }
+    }
+
+    // Returns the chunk of the slice with the given offset, checking that it's allocated
+    // and that its footer matches its header
+    private int allocatedChunk(int offset)
+    {
+        int chunk = offset - HEADER;
+        if (chunk < heapStart || chunk >= heapEnd || (chunk - heapStart) % alignment != 0)
+            throw new IllegalArgumentException("not an allocated slice: " + offset);
+
+        int tag = memory.getInt(chunk);
+        int size = tag & ~ALLOCATED;
+        if ((tag & ALLOCATED) == 0 || size < minChunk || size > heapEnd - chunk
+                || memory.getInt(chunk + size - HEADER) != tag)
+            throw new IllegalArgumentException("not an allocated slice: " + offset);
+        return chunk;
+    }
+
+    // Returns the size of the given chunk
+    private int sizeOf(int chunk)
+    {
+        return memory.getInt(chunk) & ~ALLOCATED;
+    }
+
+    // Writes the header and the footer of the given chunk
+    private void setTags(int chunk, int size, boolean allocated)
+    {
+        int tag = allocated ? size | ALLOCATED : size;
+        memory.putInt(chunk, tag);
+        memory.putInt(chunk + size - HEADER, tag);
+    }
+
+    // Returns the chunk after the given free chunk in the free list
+    private int next(int chunk)
+    {
+        return memory.getInt(chunk + HEADER);
+    }
+
+    // Returns the chunk before the given free chunk in the free list
+    private int previous(int chunk)
+    {
+        return memory.getInt(chunk + 2 * HEADER);
+    }
+
+    // Adds the given free chunk to the free list, right before the first free chunk with a bigger offset
+    private void insert(int chunk)
+    {
+        int previous = NONE;
+        int next = memory.getInt(FREE_LIST);
+        while (next != NONE && next < chunk)
+        {
+            previous = next;
+            next = next(next);
+        }
+        link(chunk, previous, next);
+    }
+
+    // Links the given free chunk between the given chunks of the free list (NONE for the start or the end of the list)
+    private void link(int chunk, int previous, int next)
+    {
+        memory.putInt(chunk + HEADER, next);
+        memory.putInt(chunk + 2 * HEADER, previous);
+        if (previous != NONE)
+            memory.putInt(previous + HEADER, chunk);
+        else
+            memory.putInt(FREE_LIST, chunk);
+        if (next != NONE)
+            memory.putInt(next + 2 * HEADER, chunk);
+    }
+
+    // Removes the given free chunk from the free list, moving the rover of next fit to the chunk after it
+    private void unlink(int chunk)
+    {
+        int next = next(chunk);
+        int previous = previous(chunk);
+
+        if (previous != NONE)
+            memory.putInt(previous + HEADER, next);
+        else
+            memory.putInt(FREE_LIST, next);
+        if (next != NONE)
+            memory.putInt(next + 2 * HEADER, previous);
+
+        if (memory.getInt(ROVER) == chunk)
+            memory.putInt(ROVER, next);
+    }
+}
@@ -0,0 +1,548 @@
+package algorithms;
+
+import java.util.Arrays;
+
+// Memory that processes are allocated to and freed from one at a time, instead of the one-shot batches of the
+// firstFit, nextFit, bestFit and worstFit methods. The memory is a range of units (e.g. KBs) [0, capacity)
+// split into chunks, each of which is either allocated to a process or a hole (free space).
+//
+// Like in a real heap, every chunk has a boundary tag at its first and at its last unit, so when a chunk is freed
+// the holes right before and right after it are found by looking at the units next to it and are merged
+// with it in O(1) time. The holes are also stored in a BlockTree, which lets the chosen policy find
+// the hole that a process goes to in O(log(h)) time, h being the number of holes:
+// first fit and next fit order the holes by their offset and keep the biggest hole of every subtree,
+// while best fit and worst fit order them by their size (and offset, in case their size is equal).
+// A switchable allocator keeps the holes in both orders, so that its policy can be changed at any time.
+class OnlineAllocator
+{
+    // The tag of the last unit of an allocated chunk (if it is longer than one unit)
+    private static final int ALLOCATED_FOOTER = Integer.MAX_VALUE;
+
+    private FitPolicy policy; // The policy that chooses the hole that a process goes to
+    private final int capacity; // The number of units of the memory
+
+    // The boundary tags of the chunks, for every chunk its first and its last unit hold the size of the chunk
+    // if it's allocated (ALLOCATED_FOOTER for the last unit) or -(hole + 1) if it's the hole with the given id.
+    // Every other unit holds 0.
+    private final int[] tags;
+
+    private int[] holeOffset; // The first unit of every hole
+    private int[] holeSize; // The number of units of every hole
+    private int[] unusedHoles = new int[16]; // The ids of the holes that can be reused
+    private int unusedHoleCount = 0; // The number of ids in unusedHoles
+    private int nextHole = 0; // The smallest id that has never been used for a hole
+
+    private final BlockTree offsetHoles; // The holes ordered by their offset, with their sizes as values, or null if not needed
+    private final BlockTree sizeHoles; // The holes ordered by their size and offset, or null if not needed
+
+    private int pointer = 0; // The unit that next fit starts searching from
+    private long freeSpace; // The total units of all the holes
+    private int holeCount = 0; // The number of holes
+    private AllocationMetrics metrics = null; // The metrics that the requests are recorded in, or null if they are not recorded
+    private int probes; // The number of tree nodes that the last findHole visited
+
+    // Whether chunks have been moved by slideDown since the last clearMoves, in which case allocate and free
+    // are refused, since the owners of the moved chunks still have their old offsets
+    private boolean movesPending = false;
+
+    // Constructor of the OnlineAllocator class
+    // Takes the number of units of the memory and the policy that chooses the hole that a process goes to as parameters
+    OnlineAllocator(int capacity, FitPolicy policy)
+    {
+        this(capacity, policy, false);
+    }
+
+    // Constructor of the OnlineAllocator class
+    // Takes the number of units of the memory, the policy that chooses the hole that a process goes to and
+    // whether the policy can be changed later (which keeps the holes in both orders) as parameters
+    OnlineAllocator(int capacity, FitPolicy policy, boolean switchable)
+    {
+        this(capacity, policy, switchable, 16);
+
+        // At the start the whole memory is a single hole
+        addHole(newHole(), 0, capacity);
+        freeSpace = capacity;
+    }
+
+    // Constructor of the OnlineAllocator class, which leaves the memory without any chunks for restore to fill in
+    // Takes the number of units of the memory, the policy, whether the policy can be changed later and
+    // the number of holes to make room for as parameters
+    private OnlineAllocator(int capacity, FitPolicy policy, boolean switchable, int holeCapacity)
+    {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+
+        this.policy = policy;
+        this.capacity = capacity;
+        tags = new int[capacity];
+        holeOffset = new int[holeCapacity];
+        holeSize = new int[holeCapacity];
+
+        boolean byOffset = policy == FitPolicy.FIRST_FIT || policy == FitPolicy.NEXT_FIT;
+        offsetHoles = switchable || byOffset ? new BlockTree(holeCapacity, true) : null;
+        sizeHoles = switchable || !byOffset ? new BlockTree(holeCapacity) : null;
+    }
+
+    /*
+     * Restores an allocator from its chunks, e.g. the ones saved in a
+     * Checkpoint: the size of every chunk in the order of their offsets,
+     * negative for the holes, the pointer of next fit and, if the allocator
+     * keeps the holes by size, the order of the holes by size (holesBySize).
+     * The holes are already in the order of each tree, so the trees are
+     * built in bulk and the whole restore takes O(capacity + chunkCount) time.
+     */
+    static OnlineAllocator restore(int capacity, FitPolicy policy, boolean switchable, int pointer,
+                                   int chunkSizes[], int chunkCount, int holesBySize[])
+    {
+        if (pointer < 0 || pointer > capacity)
+            throw new IllegalArgumentException("pointer out of the memory: " + pointer);
+
+        int holes = 0;
+        for (int k = 0; k < chunkCount; k++)
+            if (chunkSizes[k] < 0)
+                holes++;
+
+        OnlineAllocator memory = new OnlineAllocator(capacity, policy, switchable, Math.max(holes, 16));
+
+        // The holes get the ids 0, 1, 2, ... in the order of their offsets, which is the order of offsetHoles
+        long offset = 0;
+        for (int k = 0; k < chunkCount; k++)
+        {
+            int size = chunkSizes[k];
+            if (size == 0 || size == Integer.MIN_VALUE || offset + Math.abs(size) > capacity)
+                throw new IllegalArgumentException("chunk " + k + " doesn't fit in the memory: " + size);
+            if (size < 0 && k > 0 && chunkSizes[k - 1] < 0)
+                throw new IllegalArgumentException("holes " + (k - 1) + " and " + k + " are not merged");
+
+            int start = (int) offset;
+            if (size > 0)
+            {
+                memory.tags[start] = size;
+                if (size > 1)
+                    memory.tags[start + size - 1] = ALLOCATED_FOOTER;
+            }
+            else
+            {
+                int hole = memory.nextHole++;
+                memory.holeOffset[hole] = start;
+                memory.holeSize[hole] = -size;
+                memory.tags[start] = -(hole + 1);
+                memory.tags[start - size - 1] = -(hole + 1);
+                memory.freeSpace -= size;
+            }
+            offset += Math.abs(size);
+        }
+        if (offset != capacity)
+            throw new IllegalArgumentException("the chunks cover " + offset + " units instead of " + capacity);
+
+        memory.holeCount = holes;
+        memory.pointer = pointer;
+
+        long keys[] = new long[holes];
+        if (memory.offsetHoles != null)
+        {
+            int byOffset[] = new int[holes];
+            for (int hole = 0; hole < holes; hole++)
+            {
+                byOffset[hole] = hole;
+                keys[hole] = memory.holeOffset[hole];
+            }
+            memory.offsetHoles.build(byOffset, keys, memory.holeSize, holes);
+        }
+        if (memory.sizeHoles != null)
+        {
+            if (holesBySize == null || holesBySize.length != holes)
+                throw new IllegalArgumentException("the order of the holes by size doesn't have " + holes + " holes");
+
+            // Distinct offsets make the keys distinct, so keys that strictly increase mean that every hole is there once
+            for (int k = 0; k < holes; k++)
+            {
+                int hole = holesBySize[k];
+                if (hole < 0 || hole >= holes)
+                    throw new IllegalArgumentException("not a hole: " + hole);
+                keys[k] = BlockTree.key(memory.holeSize[hole], memory.holeOffset[hole]);
+                if (k > 0 && keys[k] <= keys[k - 1])
+                    throw new IllegalArgumentException("the holes are not in the order of their sizes at " + k);
+            }
+            memory.sizeHoles.build(holesBySize, keys, null, holes);
+        }
+        return memory;
+    }
+
+    // Returns the policy that chooses the hole that a process goes to
+    FitPolicy policy()
+    {
+        return policy;
+    }
+
+    // Returns true if the policy can be changed
+    boolean switchable()
+    {
+        return offsetHoles != null && sizeHoles != null;
+    }
+
+    // Changes the policy that chooses the hole that a process goes to, in O(1) time,
+    // since the holes of a switchable allocator are already in the order of every policy
+    void setPolicy(FitPolicy policy)
+    {
+        if (!switchable() && policy != this.policy)
+            throw new IllegalArgumentException("the policy of the allocator can't be changed, it's not switchable");
+        this.policy = policy;
+    }
+
+    // Returns the unit that next fit starts searching from
+    int pointer()
+    {
+        return pointer;
+    }
+
+    // Returns the number of units of the memory
+    int capacity()
+    {
+        return capacity;
+    }
+
+    // Returns the total units of all the holes
+    long freeSpace()
+    {
+        return freeSpace;
+    }
+
+    // Returns the number of holes
+    int holeCount()
+    {
+        return holeCount;
+    }
+
+    // Returns the number of units of the biggest hole, or 0 if the memory is full
+    int largestHole()
+    {
+        if (holeCount == 0)
+            return 0;
+        return offsetHoles != null ? offsetHoles.maxValue() : BlockTree.availableSpace(sizeHoles.keyOf(sizeHoles.last()));
+    }
+
+    // Makes the allocator record its requests in the given metrics, or stop recording them if it's null
+    void setMetrics(AllocationMetrics metrics)
+    {
+        this.metrics = metrics;
+    }
+
+    /*
+     * Allocates a chunk of the given number of units and returns its offset
+     * (its first unit), which is the handle that frees it, or
+     * Allocator.NOT_ALLOCATED if the process doesn't fit in any hole.
+     */
+    int allocate(int size)
+    {
+        if (size <= 0)
+            throw new IllegalArgumentException("size must be positive: " + size);
+        if (movesPending)
+            throw new IllegalStateException("chunks have been moved, their new offsets must be applied first (clearMoves)");
+
+        if (metrics == null)
+            return place(size);
+
+        // Records the time that the request took and how fragmented the holes are after it
+        long start = System.nanoTime();
+        int offset = place(size);
+        metrics.recordProbes(probes);
+        metrics.recordRequest(System.nanoTime() - start, offset != Allocator.NOT_ALLOCATED);
+        metrics.recordFragmentation(freeSpace, largestHole());
+        return offset;
+    }
+
+    // Puts a chunk of the given number of units in the hole chosen by the policy and returns its offset,
+    // or Allocator.NOT_ALLOCATED if the process doesn't fit in any hole
+    private int place(int size)
+    {
+        int hole = findHole(size);
+        if (hole == BlockTree.NIL)
+            return Allocator.NOT_ALLOCATED;
+
+        int offset = holeOffset[hole];
+        int remainingSize = holeSize[hole] - size;
+
+        // The process goes to the start of the hole and the rest of the hole (if any) stays a hole
+        removeHole(hole);
+        if (remainingSize > 0)
+            addHole(hole, offset + size, remainingSize);
+        else
+            releaseHole(hole);
+
+        tags[offset] = size;
+        if (size > 1)
+            tags[offset + size - 1] = ALLOCATED_FOOTER;
+
+        freeSpace -= size;
+        pointer = offset + size;
+        return offset;
+    }
+
+    // Frees the chunk with the given offset, which must have been returned by allocate and not freed since,
+    // and merges it with the holes right before and right after it
+    void free(int offset)
+    {
+        if (offset < 0 || offset >= capacity || tags[offset] <= 0 || offset + (long) tags[offset] > capacity)
+            throw new IllegalArgumentException("not an allocated chunk: " + offset);
+        if (movesPending)
+            throw new IllegalStateException("chunks have been moved, their new offsets must be applied first (clearMoves)");
+
+        int size = tags[offset];
+        int start = offset; // The first unit of the hole that the chunk becomes
+        int end = offset + size; // The unit after the last unit of that hole
+        int hole = BlockTree.NIL; // The id of that hole
+
+        tags[offset] = 0;
+        tags[end - 1] = 0;
+
+        // Merges with the hole right before the chunk, whose last unit is right before the first unit of the chunk
+        if (start > 0 && tags[start - 1] < 0)
+        {
+            hole = -tags[start - 1] - 1;
+            removeHole(hole);
+            tags[start - 1] = 0;
+            start = holeOffset[hole];
+            tags[start] = 0;
+        }
+
+        // Merges with the hole right after the chunk, whose first unit is right after the last unit of the chunk
+        if (end < capacity && tags[end] < 0)
+        {
+            int nextHole = -tags[end] - 1;
+            removeHole(nextHole);
+            tags[end] = 0;
+            end = holeOffset[nextHole] + holeSize[nextHole];
+            tags[end - 1] = 0;
+
+            if (hole == BlockTree.NIL)
+                hole = nextHole;
+            else
+                releaseHole(nextHole);
+        }
+
+        if (hole == BlockTree.NIL)
+            hole = newHole();
+
+        addHole(hole, start, end - start);
+        freeSpace += size;
+
+        // Records how fragmented the holes are after the chunk is freed, if the metrics are recorded
+        if (metrics != null)
+            metrics.recordFragmentation(freeSpace, largestHole());
+    }
+
+    // Returns the number of units of the allocated chunk with the given offset
+    int sizeOf(int offset)
+    {
+        return tags[offset];
+    }
+
+    // Returns true if a chunk (allocated or a hole) starts at the given offset
+    boolean isChunkStart(int offset)
+    {
+        int tag = tags[offset];
+        if (tag < 0)
+            return holeOffset[-tag - 1] == offset;
+        return tag > 0 && (tag != ALLOCATED_FOOTER || offset == 0);
+    }
+
+    // Returns true if the chunk with the given offset is a hole
+    boolean isHole(int offset)
+    {
+        return tags[offset] < 0;
+    }
+
+    // Returns the number of units of the chunk (allocated or a hole) with the given offset
+    int chunkSize(int offset)
+    {
+        int tag = tags[offset];
+        return tag < 0 ? holeSize[-tag - 1] : tag;
+    }
+
+    /*
+     * Moves the allocated chunk with the given offset down to the start of
+     * the hole right before it and returns its new offset. The hole moves up
+     * to right after the chunk, where it merges with the hole after the chunk
+     * (if there is one), so the free space doesn't change but can join into
+     * bigger holes. The caller must move the contents of the chunk as well,
+     * and allocate and free are refused until clearMoves is called.
+     */
+    int slideDown(int offset)
+    {
+        if (offset <= 0 || offset >= capacity || tags[offset] <= 0 || tags[offset - 1] >= 0)
+            throw new IllegalArgumentException("not an allocated chunk right after a hole: " + offset);
+
+        int size = tags[offset];
+        int hole = -tags[offset - 1] - 1;
+        int start = holeOffset[hole]; // The new offset of the chunk
+        int end = offset + size; // The unit after the last unit of the hole after the chunk is moved
+
+        removeHole(hole);
+        tags[offset - 1] = 0;
+        tags[offset] = 0;
+        tags[end - 1] = 0;
+
+        tags[start] = size;
+        if (size > 1)
+            tags[start + size - 1] = ALLOCATED_FOOTER;
+
+        // Merges with the hole right after the chunk, whose first unit is right after the last unit of the chunk
+        if (end < capacity && tags[end] < 0)
+        {
+            int nextHole = -tags[end] - 1;
+            removeHole(nextHole);
+            tags[end] = 0;
+            end = holeOffset[nextHole] + holeSize[nextHole];
+            tags[end - 1] = 0;
+            releaseHole(nextHole);
+        }
+
+        addHole(hole, start + size, end - start - size);
+
+        // Next fit goes on from the same chunk, which is now at its new offset
+        if (pointer == offset + size)
+            pointer = start + size;
+        movesPending = true;
+        return start;
+    }
+
+    // Returns true if chunks have been moved by slideDown since the last clearMoves
+    boolean movesPending()
+    {
+        return movesPending;
+    }
+
+    // Allows allocate and free again, after the owners of the chunks moved by slideDown have updated their offsets
+    void clearMoves()
+    {
+        movesPending = false;
+    }
+
+    // Returns the size of every chunk in the order of their offsets, negative for the holes
+    int[] chunkSizes()
+    {
+        int sizes[] = new int[holeCount + 16];
+        int count = 0;
+        for (int offset = 0; offset < capacity; offset += chunkSize(offset))
+        {
+            if (count == sizes.length)
+                sizes = Arrays.copyOf(sizes, 2 * count);
+            sizes[count++] = isHole(offset) ? -chunkSize(offset) : chunkSize(offset);
+        }
+        return Arrays.copyOf(sizes, count);
+    }
+
+    // Returns the holes in the order of their sizes (and offsets), every hole given by its index in the order of
+    // their offsets, i.e. the holesBySize of restore, or null if the allocator doesn't keep the holes by size
+    int[] holesBySize()
+    {
+        if (sizeHoles == null)
+            return null;
+
+        // The index of every hole in the order of their offsets
+        int index[] = new int[nextHole];
+        int next = 0;
+        for (int offset = 0; offset < capacity; offset += chunkSize(offset))
+            if (isHole(offset))
+                index[-tags[offset] - 1] = next++;
+
+        int holes[] = new int[holeCount];
+        sizeHoles.inOrder(holes);
+        for (int k = 0; k < holeCount; k++)
+            holes[k] = index[holes[k]];
+        return holes;
+    }
+
+    // Returns the hole that a process with the given size goes to according to the policy, or NIL if it doesn't fit anywhere,
+    // and keeps the number of tree nodes that the searches visited in probes
+    private int findHole(int size)
+    {
+        int hole;
+        switch (policy)
+        {
+            case FIRST_FIT:
+                hole = offsetHoles.firstAtLeast(0, size);
+                probes = offsetHoles.probes();
+                return hole;
+
+            case NEXT_FIT:
+                // The first hole at or after the pointer and, if there is no such hole, the first hole from the start
+                hole = offsetHoles.firstAtLeast(pointer, size);
+                probes = offsetHoles.probes();
+                if (hole == BlockTree.NIL)
+                {
+                    hole = offsetHoles.firstAtLeast(0, size);
+                    probes += offsetHoles.probes();
+                }
+                return hole;
+
+            case BEST_FIT:
+                hole = sizeHoles.ceiling(BlockTree.key(size, 0));
+                probes = sizeHoles.probes();
+                return hole;
+
+            default:
+                // The biggest hole, or the one with the smallest offset among the biggest holes
+                int biggest = sizeHoles.last();
+                probes = sizeHoles.probes();
+                if (biggest == BlockTree.NIL || holeSize[biggest] < size)
+                    return BlockTree.NIL;
+                hole = sizeHoles.ceiling(BlockTree.key(holeSize[biggest], 0));
+                probes += sizeHoles.probes();
+                return hole;
+        }
+    }
+
+    // Makes the given id the hole [offset, offset + size) and adds it to the trees
+    private void addHole(int hole, int offset, int size)
+    {
+        holeOffset[hole] = offset;
+        holeSize[hole] = size;
+        tags[offset] = -(hole + 1);
+        tags[offset + size - 1] = -(hole + 1);
+
+        if (offsetHoles != null)
+            offsetHoles.add(hole, offset, size);
+        if (sizeHoles != null)
+            sizeHoles.add(hole, BlockTree.key(size, offset));
+        holeCount++;
+    }
+
+    // Removes the given hole from the trees, its boundary tags are left for the caller to overwrite or clear
+    private void removeHole(int hole)
+    {
+        if (offsetHoles != null)
+            offsetHoles.remove(hole);
+        if (sizeHoles != null)
+            sizeHoles.remove(hole);
+        holeCount--;
+    }
+
+    // Returns an id for a new hole, reusing the ids of released holes first
+    private int newHole()
+    {
+        if (unusedHoleCount > 0)
+            return unusedHoles[--unusedHoleCount];
+
+        if (nextHole == holeOffset.length)
+        {
+            int length = 2 * holeOffset.length;
+            holeOffset = Arrays.copyOf(holeOffset, length);
+            holeSize = Arrays.copyOf(holeSize, length);
+            if (offsetHoles != null)
+                offsetHoles.ensureCapacity(length);
+            if (sizeHoles != null)
+                sizeHoles.ensureCapacity(length);
+        }
+        return nextHole++;
+    }
+
+    // Makes the id of a hole that has been removed available for reuse
+    private void releaseHole(int hole)
+    {
+        if (unusedHoleCount == unusedHoles.length)
+            unusedHoles = Arrays.copyOf(unusedHoles, 2 * unusedHoles.length);
+        unusedHoles[unusedHoleCount++] = hole;
+    }
+}
@@ -0,0 +1,187 @@
+package algorithms;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+// Runs every policy against every workload (a batch of blocks and processes) in parallel on a ForkJoinPool
+// and writes one CSV row of results for every run, for comparing the policies across many configurations.
+//
+// The allocators may reduce the available space of the blocks that they are given (firstFit and nextFit do), so
+// every workload keeps its own copy of the sizes and every run allocates on a new copy of the blocks, which
+// means that the runs never see each other's changes and the caller's arrays are never changed.
+// The rows are written in the order of the workloads and the policies, each one as soon as it and the rows
+// before it are done, through a BufferedWriter.
+class SimulationRunner
+{
+    static final String HEADER = "workload,policy,blocks,processes,allocated,allocated_units,free_units,largest_free,fragmentation,millis";
+
+    // The blocks and the processes of a batch, with a name for the CSV
+    static final class Workload
+    {
+        final String name;
+        private final int sizeOfBlocks[];
+        private final int sizeOfProcesses[];
+
+        // Constructor of the Workload class
+        // Takes the name of the workload and the sizes of its blocks and of its processes, which are copied, as parameters
+        Workload(String name, int sizeOfBlocks[], int sizeOfProcesses[])
+        {
+            this.name = name;
+            this.sizeOfBlocks = sizeOfBlocks.clone();
+            this.sizeOfProcesses = sizeOfProcesses.clone();
+        }
+    }
+
+    private final ForkJoinPool pool; // The pool that the runs are executed on
+
+    // Constructor of the SimulationRunner class
+    // Takes the pool that the runs are executed on as a parameter
+    SimulationRunner(ForkJoinPool pool)
+    {
+        this.pool = pool;
+    }
+
+    // Returns a new allocator for the given policy
+    static Allocator allocatorFor(FitPolicy policy)
+    {
+        switch (policy)
+        {
+            case FIRST_FIT:
+                return new FirstFit();
+            case NEXT_FIT:
+                return new NextFit();
+            case BEST_FIT:
+                return new BestFit();
+            default:
+                return new WorstFit();
+        }
+    }
+
+    /*
+     * Runs every one of the given policies against every one of the given
+     * workloads in parallel and writes the header and a row for every run to
+     * the given writer, which is flushed but not closed. Returns the number
+     * of runs.
+     */
+    int run(List<Workload> workloads, FitPolicy policies[], BufferedWriter csv) throws IOException
+    {
+        // Every run is submitted first, so that the pool works on all of them while the rows are written in order
+        List<ForkJoinTask<String>> runs = new ArrayList<>(workloads.size() * policies.length);
+        for (Workload workload : workloads)
+            for (FitPolicy policy : policies)
+                runs.add(pool.submit(() -> simulate(workload, policy)));
+
+        csv.write(HEADER);
+        csv.newLine();
+        for (ForkJoinTask<String> run : runs)
+        {
+            csv.write(run.join());
+            csv.newLine();
+        }
+        csv.flush();
+        return runs.size();
+    }
+
+    // Allocates the processes of the workload to a copy of its blocks with the given policy and returns the CSV row of the run
+    static String simulate(Workload workload, FitPolicy policy)
+    {
+        int sizeOfBlocks[] = workload.sizeOfBlocks.clone();
+        int sizeOfProcesses[] = workload.sizeOfProcesses;
+
+        long start = System.nanoTime();
+        int memoryAllocation[] = allocatorFor(policy).allocate(sizeOfBlocks, sizeOfProcesses);
+        double millis = (System.nanoTime() - start) / 1e6;
+
+        // The available space of every block is found from the allocation, since not every allocator reduces sizeOfBlocks
+        long availableSpace[] = new long[sizeOfBlocks.length];
+        long freeUnits = 0;
+        for (int j = 0; j < sizeOfBlocks.length; j++)
+        {
+            availableSpace[j] = workload.sizeOfBlocks[j];
+            freeUnits += availableSpace[j];
+        }
+
+        int allocated = 0;
+        long allocatedUnits = 0;
+        for (int i = 0; i < sizeOfProcesses.length; i++)
+        {
+            if (memoryAllocation[i] != Allocator.NOT_ALLOCATED)
+            {
+                allocated++;
+                allocatedUnits += sizeOfProcesses[i];
+                availableSpace[memoryAllocation[i]] -= sizeOfProcesses[i];
+            }
+        }
+        freeUnits -= allocatedUnits;
+
+        long largestFree = 0;
+        for (long space : availableSpace)
+            largestFree = Math.max(largestFree, space);
+
+        // External fragmentation: the part of the free space that is not in the block with the most free space
+        double fragmentation = freeUnits == 0 ? 0 : 1 - (double) largestFree / freeUnits;
+
+        // Locale.ROOT so that the decimal separator is always a dot, which doesn't clash with the commas of the CSV
+        return String.format(Locale.ROOT, "%s,%s,%d,%d,%d,%d,%d,%d,%.4f,%.3f", workload.name, policy, sizeOfBlocks.length,
+                sizeOfProcesses.length, allocated, allocatedUnits, freeUnits, largestFree, fragmentation, millis);
+    }
+
+    // Returns n sizes drawn uniformly from min to max
+    private static int[] sizes(Random random, int n, int min, int max)
+    {
+        int sizes[] = new int[n];
+        for (int i = 0; i < n; i++)
+            sizes[i] = min + random.nextInt(max - min + 1);
+        return sizes;
+    }
+
+    // Driver Method: runs the four policies against workloads with different numbers of blocks, numbers of processes
+    // and process sizes and writes the CSV to the given file (or to the standard output): SimulationRunner [csv file] [threads]
+    public static void main(String[] args) throws IOException
+    {
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        // Blocks of 1 to 1024 KBs, and processes of small, mixed or big sizes, 3 seeds of every configuration
+        int blockCounts[] = {1000, 10000, 100000};
+        double processesPerBlock[] = {0.5, 1, 2, 4};
+        int processSizes[][] = {{1, 256}, {1, 1024}, {512, 1024}};
+        List<Workload> workloads = new ArrayList<>();
+        for (int m : blockCounts)
+            for (double ratio : processesPerBlock)
+                for (int[] range : processSizes)
+                    for (int seed = 0; seed < 3; seed++)
+                    {
+                        Random random = new Random(seed);
+                        int n = (int) (m * ratio);
+                        String name = "m" + m + "-n" + n + "-p" + range[0] + "_" + range[1] + "-s" + seed;
+                        workloads.add(new Workload(name, sizes(random, m, 1, 1024), sizes(random, n, range[0], range[1])));
+                    }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        int runs;
+        try (BufferedWriter csv = args.length > 0
+                ? Files.newBufferedWriter(Paths.get(args[0]))
+                : new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16))
+        {
+            runs = new SimulationRunner(pool).run(workloads, FitPolicy.values(), csv);
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+
+        System.err.printf("%d runs of %d workloads on %d threads in %d ms%n", runs, workloads.size(), threads,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,111 @@
+package algorithms;
+
+import java.util.Arrays;
+
+// Segregated free lists (quick fit) of the blocks whose available space is small: one bin for every size
+// from 1 to the limit, holding the blocks that have exactly that available space.
+// Every bin is a doubly linked list threaded through arrays indexed by the id of the block, so a block is added
+// to or removed from its bin in O(1) time, and a bitmap of the bins that are not empty finds the smallest
+// bin >= a size with one numberOfTrailingZeros per 64 bins, without looking at the empty bins one by one.
+class SizeClassBins
+{
+    static final int NIL = -1; // The id used for "no block"
+
+    private final int limit; // The biggest available space that has a bin
+    private final int[] first; // The first block of every bin
+    private final int[] next; // The block after every block in its bin
+    private final int[] previous; // The block before every block in its bin
+    private final int[] binOf; // The bin of every block, or 0 if it isn't in one
+    private final long[] nonEmpty; // Bit k is set if bin k has at least one block
+
+    private int probes; // The number of words of the bitmap that the last firstAtLeast checked
+
+    // Constructor of the SizeClassBins class
+    // Takes the biggest available space that has a bin and the number of blocks as parameters
+    SizeClassBins(int limit, int blocks)
+    {
+        if (limit < 1)
+            throw new IllegalArgumentException("limit must be positive: " + limit);
+
+        this.limit = limit;
+        first = new int[limit + 1];
+        next = new int[blocks];
+        previous = new int[blocks];
+        binOf = new int[blocks];
+        nonEmpty = new long[(limit >> 6) + 1];
+
+        Arrays.fill(first, NIL);
+    }
+
+    // Returns the biggest available space that has a bin
+    int limit()
+    {
+        return limit;
+    }
+
+    // Returns true if blocks with the given available space are kept in a bin
+    boolean fits(int availableSpace)
+    {
+        return availableSpace >= 1 && availableSpace <= limit;
+    }
+
+    // Adds the block with the given id to the start of the bin of the given available space
+    void add(int blockId, int availableSpace)
+    {
+        int head = first[availableSpace];
+        next[blockId] = head;
+        previous[blockId] = NIL;
+        if (head != NIL)
+            previous[head] = blockId;
+        else
+            nonEmpty[availableSpace >> 6] |= 1L << availableSpace;
+
+        first[availableSpace] = blockId;
+        binOf[blockId] = availableSpace;
+    }
+
+    // Removes the block with the given id from its bin
+    void remove(int blockId)
+    {
+        int bin = binOf[blockId];
+        if (previous[blockId] != NIL)
+            next[previous[blockId]] = next[blockId];
+        else
+            first[bin] = next[blockId];
+        if (next[blockId] != NIL)
+            previous[next[blockId]] = previous[blockId];
+
+        if (first[bin] == NIL)
+            nonEmpty[bin >> 6] &= ~(1L << bin);
+        binOf[blockId] = 0;
+    }
+
+    // Returns the first block of the smallest bin that is not empty and is >= the given size, or NIL if there is none
+    int firstAtLeast(int size)
+    {
+        probes = 0;
+        size = Math.max(size, 1);
+        if (size > limit)
+            return NIL;
+
+        // Masks off the bins below the size in their word and then finds the lowest bit left, word by word
+        int word = size >> 6;
+        long bits = nonEmpty[word] & (-1L << size);
+        probes++;
+        while (bits == 0)
+        {
+            if (++word == nonEmpty.length)
+                return NIL;
+            bits = nonEmpty[word];
+            probes++;
+        }
+
+        return first[(word << 6) + Long.numberOfTrailingZeros(bits)];
+    }
+
+    // Returns the number of words of the bitmap that the last firstAtLeast checked
+    int probes()
+    {
+        return probes;
+    }
+}
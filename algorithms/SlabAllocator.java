@@ -0,0 +1,349 @@
+package algorithms;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Thread safe slab allocator for records of a few fixed sizes, on top of an OnlineAllocator.
+// Every size class carves slabs (chunks allocated from the OnlineAllocator with the policy it was created with)
+// into slots of equal size, so a record never searches the holes of the memory and never wastes more than
+// the difference between its size and the size of its class.
+//
+// The free slots of every slab are the set bits of a long[] bitmap, so a free slot is found with one
+// Long.numberOfTrailingZeros per 64 slots, and the slabs of every class that have free slots are kept in a
+// doubly linked list. A slab whose slots are all free again is returned to the OnlineAllocator, where it can
+// merge with the holes next to it and be used by any other class.
+//
+// Every thread has a magazine per class: a small stack of slots that it allocates from and frees to without
+// taking any lock. Only when its magazine is empty (or full) does a thread lock the class, to take half a
+// magazine of slots from the slabs (or to give half of them back), and only when a slab is created or returned
+// does it also lock the OnlineAllocator. Slots stay in the magazine of the thread that freed them, so a thread
+// should call flush before it ends, and a double free is only found when the slot goes back to its slab.
+class SlabAllocator
+{
+    private static final int NIL = -1; // The id used for "no slab"
+
+    private final OnlineAllocator memory; // The memory that the slabs are allocated from
+    private final ReentrantLock memoryLock = new ReentrantLock(); // The lock of the memory, taken after the lock of a class
+
+    private final int[] slotSizes; // The size of the slots of every class, in ascending order
+    private final ReentrantLock[] classLocks; // The lock of every class, which guards its slabs
+    private final int slotsPerSlab; // The number of slots of every slab
+    private final int words; // The number of longs of the bitmap of every slab
+    private final int magazineSize; // The number of slots that every magazine holds
+
+    // The slabs, whose ids are reused after they are returned to the memory
+    private final int[] slabOffset; // The offset of every slab in the memory
+    private final int[] slabClass; // The class of every slab, or NIL if the id is not used
+    private final int[] freeSlotCount; // The number of free slots of every slab
+    private final long[] freeSlots; // The bitmap of every slab at [slab * words, (slab + 1) * words), a set bit is a free slot
+    private final int[] partialNext; // The slab after every slab in the list of its class
+    private final int[] partialPrevious; // The slab before every slab in the list of its class
+    private final int[] partialFirst; // The first slab with free slots of every class
+    private final int[] unusedSlabs; // The ids of the slabs that can be reused, guarded by the memory lock
+    private int unusedSlabCount = 0;
+    private int nextSlab = 0; // The smallest id that has never been used for a slab, guarded by the memory lock
+
+    // The slots that a thread has taken from the slabs of a class, as handles
+    private static final class Magazine
+    {
+        final long[] rounds;
+        int count = 0;
+
+        Magazine(int size)
+        {
+            rounds = new long[size];
+        }
+    }
+
+    private final ThreadLocal<Magazine[]> magazines; // The magazine of every class of every thread
+
+    // Constructor of the SlabAllocator class
+    // Takes the memory that the slabs are allocated from (which must only be used through this allocator),
+    // the slot sizes of the classes, the number of slots of every slab and the number of slots of every magazine as parameters
+    SlabAllocator(OnlineAllocator memory, int slotSizes[], int slotsPerSlab, int magazineSize)
+    {
+        if (slotSizes.length == 0)
+            throw new IllegalArgumentException("there must be at least one slot size");
+        if (slotsPerSlab <= 0 || magazineSize <= 0)
+            throw new IllegalArgumentException("slotsPerSlab and magazineSize must be positive: " + slotsPerSlab + ", " + magazineSize);
+
+        this.memory = memory;
+        this.slotSizes = slotSizes.clone();
+        Arrays.sort(this.slotSizes);
+        if (this.slotSizes[0] <= 0 || (long) this.slotSizes[this.slotSizes.length - 1] * slotsPerSlab > memory.capacity())
+            throw new IllegalArgumentException("the slabs of every class must be positive and fit in the memory");
+
+        this.slotsPerSlab = slotsPerSlab;
+        this.magazineSize = magazineSize;
+        words = (slotsPerSlab + 63) >>> 6;
+
+        classLocks = new ReentrantLock[slotSizes.length];
+        partialFirst = new int[slotSizes.length];
+        for (int c = 0; c < slotSizes.length; c++)
+            classLocks[c] = new ReentrantLock();
+        Arrays.fill(partialFirst, NIL);
+
+        // There can't be more slabs than slabs of the smallest class that fit in the memory
+        int maxSlabs = memory.capacity() / (this.slotSizes[0] * slotsPerSlab);
+        slabOffset = new int[maxSlabs];
+        slabClass = new int[maxSlabs];
+        freeSlotCount = new int[maxSlabs];
+        freeSlots = new long[maxSlabs * words];
+        partialNext = new int[maxSlabs];
+        partialPrevious = new int[maxSlabs];
+        unusedSlabs = new int[maxSlabs];
+        Arrays.fill(slabClass, NIL);
+
+        magazines = ThreadLocal.withInitial(() ->
+        {
+            Magazine[] threadMagazines = new Magazine[this.slotSizes.length];
+            for (int c = 0; c < threadMagazines.length; c++)
+                threadMagazines[c] = new Magazine(magazineSize);
+            return threadMagazines;
+        });
+    }
+
+    // Returns the offset in the memory of the slot with the given handle
+    static int offsetOf(long handle)
+    {
+        return (int) handle;
+    }
+
+    // Returns the size of the slots of the smallest class that the given size fits in, or -1 if it fits in none
+    int slotSize(int size)
+    {
+        int c = classOf(size);
+        return c == NIL ? -1 : slotSizes[c];
+    }
+
+    /*
+     * Allocates a slot of the smallest class that the given number of units
+     * fits in and returns its handle, which holds the slab (in the high 32
+     * bits) and the offset of the slot in the memory (in the low 32 bits),
+     * or Allocator.NOT_ALLOCATED if the memory has no room for another slab.
+     */
+    long allocate(int size)
+    {
+        int c = classOf(size);
+        if (size <= 0 || c == NIL)
+            throw new IllegalArgumentException("no slot size for size: " + size);
+
+        Magazine magazine = magazines.get()[c];
+        if (magazine.count == 0)
+            refill(c, magazine);
+        if (magazine.count == 0)
+            return Allocator.NOT_ALLOCATED;
+
+        return magazine.rounds[--magazine.count];
+    }
+
+    // Frees the slot with the given handle, which must have been returned by allocate and not freed since
+    void free(long handle)
+    {
+        int slab = (int) (handle >>> 32);
+        if (handle < 0 || slab >= slabClass.length || slabClass[slab] == NIL)
+            throw new IllegalArgumentException("not an allocated slot: " + handle);
+
+        Magazine magazine = magazines.get()[slabClass[slab]];
+        if (magazine.count == magazineSize)
+            release(slabClass[slab], magazine, magazineSize / 2);
+
+        magazine.rounds[magazine.count++] = handle;
+    }
+
+    // Gives all the slots in the magazines of the calling thread back to their slabs
+    void flush()
+    {
+        Magazine[] threadMagazines = magazines.get();
+        for (int c = 0; c < threadMagazines.length; c++)
+            if (threadMagazines[c].count > 0)
+                release(c, threadMagazines[c], 0);
+    }
+
+    // Returns the number of slabs that are allocated from the memory
+    int slabCount()
+    {
+        memoryLock.lock();
+        try
+        {
+            return nextSlab - unusedSlabCount;
+        }
+        finally
+        {
+            memoryLock.unlock();
+        }
+    }
+
+    // Returns the total units of the holes of the memory, outside of any slab
+    long freeSpace()
+    {
+        memoryLock.lock();
+        try
+        {
+            return memory.freeSpace();
+        }
+        finally
+        {
+            memoryLock.unlock();
+        }
+    }
+
+    // Returns the smallest class whose slots the given size fits in, or NIL if it fits in none
+    private int classOf(int size)
+    {
+        for (int c = 0; c < slotSizes.length; c++)
+            if (slotSizes[c] >= size)
+                return c;
+        return NIL;
+    }
+
+    // Fills half of the given magazine of class c with free slots of its slabs, creating new slabs if they run out
+    private void refill(int c, Magazine magazine)
+    {
+        int target = Math.max(1, magazineSize / 2);
+
+        classLocks[c].lock();
+        try
+        {
+            while (magazine.count < target)
+            {
+                int slab = partialFirst[c];
+                if (slab == NIL)
+                {
+                    slab = newSlab(c);
+                    if (slab == NIL)
+                        return;
+                }
+
+                // Takes the lowest free slots of the slab, 64 slots per word of its bitmap
+                for (int w = 0; w < words && magazine.count < target; w++)
+                {
+                    long bits = freeSlots[slab * words + w];
+                    while (bits != 0 && magazine.count < target)
+                    {
+                        int slot = (w << 6) + Long.numberOfTrailingZeros(bits);
+                        bits &= bits - 1;
+                        freeSlotCount[slab]--;
+                        magazine.rounds[magazine.count++] = ((long) slab << 32) | (slabOffset[slab] + slot * slotSizes[c]);
+                    }
+                    freeSlots[slab * words + w] = bits;
+                }
+
+                // A slab with no free slots leaves the list of its class
+                if (freeSlotCount[slab] == 0)
+                    unlink(slab, c);
+            }
+        }
+        finally
+        {
+            classLocks[c].unlock();
+        }
+    }
+
+    // Gives the slots of the given magazine of class c back to their slabs until it holds the given number of slots,
+    // returning the slabs whose slots are all free to the memory
+    private void release(int c, Magazine magazine, int keep)
+    {
+        classLocks[c].lock();
+        try
+        {
+            while (magazine.count > keep)
+            {
+                long handle = magazine.rounds[--magazine.count];
+                int slab = (int) (handle >>> 32);
+                int distance = offsetOf(handle) - slabOffset[slab];
+                int slot = distance / slotSizes[c];
+                int word = slab * words + (slot >>> 6);
+
+                if (slabClass[slab] != c || distance < 0 || distance % slotSizes[c] != 0 || slot >= slotsPerSlab
+                        || (freeSlots[word] & (1L << slot)) != 0)
+                    throw new IllegalArgumentException("not an allocated slot: " + handle);
+
+                freeSlots[word] |= 1L << slot;
+                freeSlotCount[slab]++;
+
+                // A full slab that gets a free slot joins the list of its class again,
+                // and a slab whose slots are all free goes back to the memory
+                if (freeSlotCount[slab] == 1)
+                    push(slab, c);
+                if (freeSlotCount[slab] == slotsPerSlab)
+                {
+                    unlink(slab, c);
+                    releaseSlab(slab);
+                }
+            }
+        }
+        finally
+        {
+            classLocks[c].unlock();
+        }
+    }
+
+    // Allocates a new slab of class c from the memory and adds it to the list of its class, or returns NIL if it doesn't fit
+    private int newSlab(int c)
+    {
+        int slab;
+        memoryLock.lock();
+        try
+        {
+            int offset = memory.allocate(slotSizes[c] * slotsPerSlab);
+            if (offset == Allocator.NOT_ALLOCATED)
+                return NIL;
+
+            slab = unusedSlabCount > 0 ? unusedSlabs[--unusedSlabCount] : nextSlab++;
+            slabOffset[slab] = offset;
+        }
+        finally
+        {
+            memoryLock.unlock();
+        }
+
+        // All the slots are free at the start
+        slabClass[slab] = c;
+        freeSlotCount[slab] = slotsPerSlab;
+        Arrays.fill(freeSlots, slab * words, (slab + 1) * words, -1L);
+        if ((slotsPerSlab & 63) != 0)
+            freeSlots[(slab + 1) * words - 1] = (1L << slotsPerSlab) - 1;
+
+        push(slab, c);
+        return slab;
+    }
+
+    // Frees the chunk of the given slab in the memory and makes its id reusable
+    private void releaseSlab(int slab)
+    {
+        slabClass[slab] = NIL;
+        memoryLock.lock();
+        try
+        {
+            memory.free(slabOffset[slab]);
+            unusedSlabs[unusedSlabCount++] = slab;
+        }
+        finally
+        {
+            memoryLock.unlock();
+        }
+    }
+
+    // Adds the given slab to the start of the list of class c
+    private void push(int slab, int c)
+    {
+        int head = partialFirst[c];
+        partialNext[slab] = head;
+        partialPrevious[slab] = NIL;
+        if (head != NIL)
+            partialPrevious[head] = slab;
+        partialFirst[c] = slab;
+    }
+
+    // Removes the given slab from the list of class c
+    private void unlink(int slab, int c)
+    {
+        if (partialPrevious[slab] != NIL)
+            partialNext[partialPrevious[slab]] = partialNext[slab];
+        else
+            partialFirst[c] = partialNext[slab];
+        if (partialNext[slab] != NIL)
+            partialPrevious[partialNext[slab]] = partialPrevious[slab];
+    }
+}
@@ -0,0 +1,167 @@
+package algorithms;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Thread safe front-end of OnlineAllocators, for allocating and freeing memory from many threads at the same time.
+// The memory is split into stripes (arenas), each of which is an OnlineAllocator running the same policy and guarded
+// by its own lock, so threads that allocate from different arenas never wait for each other.
+//
+// Every thread has a home arena, given out round robin the first time it allocates, so with at least as many arenas
+// as threads each thread usually has its own arena. If the lock of the home arena is taken, the thread moves to the
+// first arena whose lock is free, and if the home arena has no hole big enough the thread steals from the others.
+// A chunk can be freed by any thread, since the handle of a chunk holds the arena it was allocated from.
+class StripedAllocator
+{
+    private final OnlineAllocator[] arenas; // The arenas that the memory is split into
+    private final ReentrantLock[] locks; // The lock of every arena
+
+    private final AtomicInteger nextHome = new AtomicInteger(); // The home arena of the next thread that allocates
+    private final ThreadLocal<int[]> home; // The home arena of every thread, in an array so that it can be changed in place
+
+    // Constructor of the StripedAllocator class
+    // Takes the number of units of every arena, the number of arenas and the policy of the arenas as parameters
+    StripedAllocator(int arenaCapacity, int arenaCount, FitPolicy policy)
+    {
+        if (arenaCount <= 0)
+            throw new IllegalArgumentException("arenaCount must be positive: " + arenaCount);
+
+        arenas = new OnlineAllocator[arenaCount];
+        locks = new ReentrantLock[arenaCount];
+        for (int i = 0; i < arenaCount; i++)
+        {
+            arenas[i] = new OnlineAllocator(arenaCapacity, policy);
+            locks[i] = new ReentrantLock();
+        }
+
+        home = ThreadLocal.withInitial(() -> new int[] {Math.floorMod(nextHome.getAndIncrement(), arenaCount)});
+    }
+
+    // Returns the number of arenas
+    int arenaCount()
+    {
+        return arenas.length;
+    }
+
+    // Returns the arena of the given handle
+    static int arenaOf(long handle)
+    {
+        return (int) (handle >>> 32);
+    }
+
+    // Returns the offset in its arena of the given handle
+    static int offsetOf(long handle)
+    {
+        return (int) handle;
+    }
+
+    /*
+     * Allocates a chunk of the given number of units and returns its handle,
+     * which holds the arena (in the high 32 bits) and the offset in the arena
+     * (in the low 32 bits) of the chunk, or Allocator.NOT_ALLOCATED if the
+     * process doesn't fit in any arena.
+     */
+    long allocate(int size)
+    {
+        int[] threadHome = home.get();
+        int n = arenas.length;
+
+        // Takes the home arena or, if another thread holds it, the first free arena after it, which becomes the new home
+        int arena = threadHome[0];
+        boolean locked = false;
+        for (int i = 0; i < n && !locked; i++)
+        {
+            int candidate = (threadHome[0] + i) % n;
+            if (locks[candidate].tryLock())
+            {
+                arena = candidate;
+                locked = true;
+            }
+        }
+        if (!locked)
+            locks[arena].lock();
+        threadHome[0] = arena;
+
+        int offset;
+        try
+        {
+            offset = arenas[arena].allocate(size);
+        }
+        finally
+        {
+            locks[arena].unlock();
+        }
+
+        // Steals from the other arenas if the process doesn't fit in the home arena
+        for (int i = 1; i < n && offset == Allocator.NOT_ALLOCATED; i++)
+        {
+            int victim = (arena + i) % n;
+            locks[victim].lock();
+            try
+            {
+                offset = arenas[victim].allocate(size);
+            }
+            finally
+            {
+                locks[victim].unlock();
+            }
+            if (offset != Allocator.NOT_ALLOCATED)
+                arena = victim;
+        }
+
+        if (offset == Allocator.NOT_ALLOCATED)
+            return Allocator.NOT_ALLOCATED;
+        return ((long) arena << 32) | offset;
+    }
+
+    // Frees the chunk with the given handle, which must have been returned by allocate and not freed since
+    void free(long handle)
+    {
+        int arena = arenaOf(handle);
+        if (handle < 0 || arena >= arenas.length)
+            throw new IllegalArgumentException("not an allocated chunk: " + handle);
+
+        locks[arena].lock();
+        try
+        {
+            arenas[arena].free(offsetOf(handle));
+        }
+        finally
+        {
+            locks[arena].unlock();
+        }
+    }
+
+    // Returns the total units of the holes of all the arenas
+    long freeSpace()
+    {
+        long freeSpace = 0;
+        for (int i = 0; i < arenas.length; i++)
+        {
+            locks[i].lock();
+            try
+            {
+                freeSpace += arenas[i].freeSpace();
+            }
+            finally
+            {
+                locks[i].unlock();
+            }
+        }
+        return freeSpace;
+    }
+
+    // Returns the units of the holes of the given arena
+    long freeSpace(int arena)
+    {
+        locks[arena].lock();
+        try
+        {
+            return arenas[arena].freeSpace();
+        }
+        finally
+        {
+            locks[arena].unlock();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package algorithms;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Reads the events of an allocation trace (see TraceWriter for the format) one at a time.
+// The file is memory mapped a window at a time, so traces much bigger than the Java heap
+// (or than the 2GB that a single mapping can hold) are streamed through the page cache,
+// and reading an event creates no objects.
+class TraceReader implements Closeable
+{
+    private static final long WINDOW_SIZE = (1L << 30) / TraceWriter.RECORD_SIZE * TraceWriter.RECORD_SIZE; // About 1GB of whole records
+
+    private final FileChannel channel;
+    private final long size; // The number of bytes of the trace
+    private long windowStart; // The offset in the file of the mapped window
+    private MappedByteBuffer window;
+    private long index = -1; // The index of the last event read
+
+    // The fields of the last event read
+    private long timestamp;
+    private int id;
+    private int eventSize;
+
+    // Constructor of the TraceReader class
+    // Takes the file of the trace as a parameter and checks its header
+    TraceReader(Path file) throws IOException
+    {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        size = channel.size();
+
+        if ((size - TraceWriter.HEADER_SIZE) % TraceWriter.RECORD_SIZE != 0 || size < TraceWriter.HEADER_SIZE)
+        {
+            channel.close();
+            throw new IOException("not a trace file (" + size + " bytes): " + file);
+        }
+
+        map(0);
+        if (window.getInt() != TraceWriter.MAGIC || window.getInt() != TraceWriter.VERSION)
+        {
+            channel.close();
+            throw new IOException("not a trace file (bad header): " + file);
+        }
+    }
+
+    // Returns the number of events of the trace
+    long eventCount()
+    {
+        return (size - TraceWriter.HEADER_SIZE) / TraceWriter.RECORD_SIZE;
+    }
+
+    // Reads the next event, returns false if there are no more events
+    boolean next() throws IOException
+    {
+        if (!window.hasRemaining())
+        {
+            long next = windowStart + window.limit();
+            if (next >= size)
+                return false;
+            map(next);
+        }
+
+        timestamp = window.getLong();
+        id = window.getInt();
+        eventSize = window.getInt();
+        index++;
+
+        // A size of 0 (FREE) frees the process, every other size must be positive
+        if (eventSize < 0)
+            throw new IOException("event " + index + " has a negative size: " + eventSize);
+        return true;
+    }
+
+    // Returns the timestamp of the last event read
+    long timestamp()
+    {
+        return timestamp;
+    }
+
+    // Returns the id of the process of the last event read
+    int id()
+    {
+        return id;
+    }
+
+    // Returns true if the last event read frees its process
+    boolean isFree()
+    {
+        return eventSize == TraceWriter.FREE;
+    }
+
+    // Returns the number of units that the last event read allocates
+    int size()
+    {
+        return eventSize;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        channel.close();
+    }
+
+    // Maps the window of the file that starts at the given offset, which always ends at the end of a record
+    private void map(long start) throws IOException
+    {
+        long length = Math.min(WINDOW_SIZE + (start == 0 ? TraceWriter.HEADER_SIZE : 0), size - start);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        window.order(ByteOrder.LITTLE_ENDIAN);
+        windowStart = start;
+    }
+}
@@ -0,0 +1,141 @@
+package algorithms;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+// Replays an allocation trace (see TraceWriter for the format) on an OnlineAllocator with one of the policies,
+// one event at a time, and prints how fast the events were replayed and how well the memory was used.
+public class TraceReplay
+{
+    private final OnlineAllocator allocator;
+
+    private int[] offsets = new int[1 << 16]; // The offset of the chunk of every process id, or NOT_ALLOCATED
+
+    // The counters of the replay
+    long allocations = 0;
+    long failedAllocations = 0;
+    long frees = 0;
+    long ignoredFrees = 0; // Frees of processes that are not allocated (e.g. their allocation failed)
+    long allocatedUnits = 0; // The units allocated right now
+    long peakAllocatedUnits = 0;
+    long elapsedNanos = 0;
+
+    // Constructor of the TraceReplay class
+    // Takes the number of units of the memory and the policy that allocates them as parameters
+    TraceReplay(int capacity, FitPolicy policy)
+    {
+        allocator = new OnlineAllocator(capacity, policy);
+        Arrays.fill(offsets, Allocator.NOT_ALLOCATED);
+    }
+
+    // Replays all the events of the given trace
+    void replay(TraceReader trace) throws IOException
+    {
+        long start = System.nanoTime();
+
+        while (trace.next())
+        {
+            int id = trace.id();
+            if (id < 0)
+                throw new IOException("negative process id: " + id);
+            if (id >= offsets.length)
+            {
+                int length = offsets.length;
+                offsets = Arrays.copyOf(offsets, Math.max(2 * length, id + 1));
+                Arrays.fill(offsets, length, offsets.length, Allocator.NOT_ALLOCATED);
+            }
+
+            if (trace.isFree())
+            {
+                if (offsets[id] == Allocator.NOT_ALLOCATED)
+                    ignoredFrees++;
+                else
+                {
+                    allocatedUnits -= allocator.sizeOf(offsets[id]);
+                    allocator.free(offsets[id]);
+                    offsets[id] = Allocator.NOT_ALLOCATED;
+                    frees++;
+                }
+            }
+            else
+            {
+                if (offsets[id] != Allocator.NOT_ALLOCATED)
+                    throw new IOException("process " + id + " is allocated twice");
+
+                offsets[id] = allocator.allocate(trace.size());
+                if (offsets[id] == Allocator.NOT_ALLOCATED)
+                    failedAllocations++;
+                else
+                {
+                    allocations++;
+                    allocatedUnits += trace.size();
+                    peakAllocatedUnits = Math.max(peakAllocatedUnits, allocatedUnits);
+                }
+            }
+        }
+
+        elapsedNanos += System.nanoTime() - start;
+    }
+
+    // Prints the summary of the replay
+    void printSummary(long events)
+    {
+        double seconds = elapsedNanos / 1e9;
+        int capacity = allocator.capacity();
+        long freeSpace = allocator.freeSpace();
+
+        System.out.println("Policy:                 " + allocator.policy());
+        System.out.println("Events:                 " + events);
+        System.out.printf("Elapsed:                %.3f s%n", seconds);
+        System.out.printf("Throughput:             %.0f events/s%n", events / seconds);
+        System.out.println("Allocations:            " + allocations);
+        System.out.println("Failed allocations:     " + failedAllocations);
+        System.out.println("Frees:                  " + frees);
+        System.out.println("Ignored frees:          " + ignoredFrees);
+        System.out.printf("Peak utilization:       %.2f%%%n", 100.0 * peakAllocatedUnits / capacity);
+        System.out.printf("Final utilization:      %.2f%%%n", 100.0 * allocatedUnits / capacity);
+        System.out.println("Final holes:            " + allocator.holeCount());
+        System.out.printf("Final largest hole:     %.2f%% of the free space%n",
+                freeSpace == 0 ? 100.0 : 100.0 * allocator.largestHole() / freeSpace);
+    }
+
+    // Makes the allocator of the replay record its requests in the given metrics
+    void setMetrics(AllocationMetrics metrics)
+    {
+        allocator.setMetrics(metrics);
+    }
+
+    // Driver Method: TraceReplay <trace file> <FIRST_FIT|NEXT_FIT|BEST_FIT|WORST_FIT> <capacity in units> [--metrics]
+    // With --metrics the requests are also recorded in an AllocationMetrics, which is registered as an MBean
+    // (so it can be watched with jconsole while the trace is replayed) and printed after the summary
+    public static void main(String[] args) throws Exception
+    {
+        if (args.length != 3 && !(args.length == 4 && args[3].equals("--metrics")))
+        {
+            System.err.println("Usage: TraceReplay <trace file> <FIRST_FIT|NEXT_FIT|BEST_FIT|WORST_FIT> <capacity in units> [--metrics]");
+            System.exit(1);
+        }
+
+        TraceReplay replay = new TraceReplay(Integer.parseInt(args[2]), FitPolicy.valueOf(args[1]));
+        AllocationMetrics metrics = null;
+        if (args.length == 4)
+        {
+            metrics = new AllocationMetrics();
+            metrics.register("TraceReplay-" + args[1]);
+            replay.setMetrics(metrics);
+        }
+
+        try (TraceReader trace = new TraceReader(Paths.get(args[0])))
+        {
+            replay.replay(trace);
+            replay.printSummary(trace.eventCount());
+        }
+
+        if (metrics != null)
+        {
+            System.out.println();
+            System.out.print(metrics.getSnapshot());
+        }
+    }
+}
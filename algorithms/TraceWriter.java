@@ -0,0 +1,110 @@
+package algorithms;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+// Writes allocation traces, binary logs of allocate and free events that TraceReader reads back.
+//
+// A trace starts with an 8 byte header (the MAGIC number and the VERSION of the format) followed by
+// a 16 byte record for every event: its timestamp in nanoseconds (long), the id of the process (int)
+// and the size that the process allocates (int), or FREE if the event frees the process.
+// Every number is little endian. The ids of the processes are expected to be small, e.g. assigned in order
+// starting from 0, since the replay keeps the allocation of every id in an array.
+class TraceWriter implements Closeable
+{
+    static final int MAGIC = 0x4352544D; // "MTRC" in little endian
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 8;
+    static final int RECORD_SIZE = 16;
+    static final int FREE = 0; // The size of the events that free a process
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+
+    // Constructor of the TraceWriter class
+    // Takes the file of the trace as a parameter, which is created or truncated
+    TraceWriter(Path file) throws IOException
+    {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        buffer.putInt(MAGIC).putInt(VERSION);
+    }
+
+    // Writes an event that allocates the given number of units to the process with the given id
+    void allocate(long timestamp, int id, int size) throws IOException
+    {
+        if (size <= 0)
+            throw new IllegalArgumentException("size must be positive: " + size);
+        write(timestamp, id, size);
+    }
+
+    // Writes an event that frees the process with the given id
+    void free(long timestamp, int id) throws IOException
+    {
+        write(timestamp, id, FREE);
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        flush();
+        channel.close();
+    }
+
+    private void write(long timestamp, int id, int size) throws IOException
+    {
+        if (buffer.remaining() < RECORD_SIZE)
+            flush();
+        buffer.putLong(timestamp).putInt(id).putInt(size);
+    }
+
+    private void flush() throws IOException
+    {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+
+    // Writes a random trace, in which every event allocates a new process or frees one of the live ones,
+    // for trying out the replay: TraceWriter <trace file> <number of events> [seed]
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length < 2)
+        {
+            System.err.println("Usage: TraceWriter <trace file> <number of events> [seed]");
+            System.exit(1);
+        }
+
+        long events = Long.parseLong(args[1]);
+        Random random = new Random(args.length > 2 ? Long.parseLong(args[2]) : 42);
+
+        int live[] = new int[1 << 16]; // The ids of the live processes
+        int liveCount = 0;
+        int nextId = 0;
+
+        try (TraceWriter writer = new TraceWriter(Paths.get(args[0])))
+        {
+            for (long i = 0; i < events; i++)
+            {
+                if (liveCount == live.length || (liveCount > 0 && random.nextBoolean()))
+                {
+                    int k = random.nextInt(liveCount);
+                    writer.free(i, live[k]);
+                    live[k] = live[--liveCount];
+                }
+                else
+                {
+                    writer.allocate(i, nextId, 1 + random.nextInt(1024));
+                    live[liveCount++] = nextId++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package algorithms;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// SIMD version of the scan of BlockScan, built on the Vector API. The available space of as many blocks as
+// fit in a SIMD register (8 with AVX2, 16 with AVX-512) is loaded at once and compared with the size of the
+// process in one instruction, and the first lane that is big enough is found from the mask of the comparison.
+// It must only be used through BlockScan, which checks that the jdk.incubator.vector module is available.
+final class VectorScan
+{
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED; // The widest vectors of the CPU
+
+    // Returns the number of blocks compared at once
+    static int lanes()
+    {
+        return SPECIES.length();
+    }
+
+    // Returns the smallest block id that is >= from and < to and has available space >= size, or -1 if there is no such block
+    static int firstAtLeast(int sizeOfBlocks[], int from, int to, int size)
+    {
+        int j = from;
+
+        // Checks the first blocks one by one, since a process often fits in one of them
+        // and then comparing a whole vector costs more than it saves
+        int scalarEnd = Math.min(to, from + SPECIES.length());
+        for (; j < scalarEnd; j++)
+            if (sizeOfBlocks[j] >= size)
+                return j;
+
+        // Compares whole vectors of blocks, as long as they are within the range
+        int upperBound = j + SPECIES.loopBound(to - j);
+        for (; j < upperBound; j += SPECIES.length())
+        {
+            VectorMask<Integer> fits = IntVector.fromArray(SPECIES, sizeOfBlocks, j).compare(VectorOperators.GE, size);
+            if (fits.anyTrue())
+                return j + fits.firstTrue();
+        }
+
+        // Checks the blocks left one by one, since there are fewer of them than the lanes of a vector
+        for (; j < to; j++)
+            if (sizeOfBlocks[j] >= size)
+                return j;
+
+        return -1;
+    }
+}
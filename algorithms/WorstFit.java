@@ -1,3 +1,5 @@
+package algorithms;
+
 import java.util.ArrayList;
 import java.util.TreeSet;
 
@@ -36,8 +38,59 @@ class BlockInWorstFit implements Comparable<BlockInWorstFit>{
     }
 }
 
-public class WorstFit
+public class WorstFit implements Allocator
 {
+    // The ordered structures that the blocks can be stored in while searching for the biggest block
+    enum Index
+    {
+        TREE_SET, // A TreeSet of BlockInWorstFit objects
+        BLOCK_HEAP // An indexed max heap of block ids
+    }
+
+    private final Index index; // The ordered structure that this allocator stores the blocks in
+    private AllocationMetrics metrics = null; // The metrics that the requests are recorded in, or null if they are not recorded
+
+    // Constructor of the WorstFit class, which stores the blocks in a BlockHeap
+    WorstFit()
+    {
+        this(Index.BLOCK_HEAP);
+    }
+
+    // Constructor of the WorstFit class
+    // Takes the ordered structure that the blocks are stored in as a parameter
+    WorstFit(Index index)
+    {
+        this.index = index;
+    }
+
+    // Makes the allocator record its requests in the given metrics, or stop recording them if it's null
+    void setMetrics(AllocationMetrics metrics)
+    {
+        this.metrics = metrics;
+    }
+
+    // Allocates memory to blocks according to the worst fit algorithm,
+    // sizeOfBlocks is left as it is
+    @Override
+    public void allocate(int sizeOfBlocks[], int sizeOfProcesses[], int memoryAllocation[])
+    {
+        if (index == Index.TREE_SET)
+            allocateTreeSet(sizeOfBlocks, sizeOfProcesses, memoryAllocation, metrics);
+        else
+            allocateBlockHeap(sizeOfBlocks, sizeOfProcesses, memoryAllocation, metrics);
+
+        // Records how fragmented the available space of the blocks is after the allocation,
+        // which is found by subtracting the processes from a copy of the blocks, since sizeOfBlocks is left as it is
+        if (metrics != null)
+        {
+            int availableSpace[] = sizeOfBlocks.clone();
+            for (int i = 0; i < sizeOfProcesses.length; i++)
+                if (memoryAllocation[i] != NOT_ALLOCATED)
+                    availableSpace[memoryAllocation[i]] -= sizeOfProcesses[i];
+            metrics.recordFragmentation(availableSpace);
+        }
+    }
+
     /*
      * Method to allocate memory to blocks according to the worst fit
      * algorithm. It should return an ArrayList of Integers, where the
@@ -45,6 +98,23 @@ public class WorstFit
      * number (also zero-indexed).
      */
     static ArrayList<Integer> worstFit(int sizeOfBlocks[], int sizeOfProcesses[])
+    {
+        return Allocator.toArrayList(new WorstFit(Index.TREE_SET).allocate(sizeOfBlocks, sizeOfProcesses));
+    }
+
+    /*
+     * Method to allocate memory to blocks according to the worst fit
+     * algorithm, using an indexed max heap of the blocks instead of a
+     * TreeSet of BlockInWorstFit objects. It returns exactly the same
+     * allocation as the worstFit method.
+     */
+    static ArrayList<Integer> worstFitHeap(int sizeOfBlocks[], int sizeOfProcesses[])
+    {
+        return Allocator.toArrayList(new WorstFit(Index.BLOCK_HEAP).allocate(sizeOfBlocks, sizeOfProcesses));
+    }
+
+    // Allocates memory to blocks by storing them in a TreeSet of BlockInWorstFit objects
+    private static void allocateTreeSet(int sizeOfBlocks[], int sizeOfProcesses[], int memoryAllocation[], AllocationMetrics metrics)
     {
         // In this implementation of the worst-fit algorithm,
         // the BlockInWorstFit objects in the TreeSet are stored in ascending order according to their
@@ -63,12 +133,8 @@ public class WorstFit
         int n = sizeOfProcesses.length; // Number of total processes
         int m = sizeOfBlocks.length; // Number of total blocks in memory
 
-        // Holds the id of the block allocated to the processes
-        ArrayList<Integer> memoryAllocation = new ArrayList<>();
-
-        // Initializes the Array list with "-255" which means that the process is not allocated at the start
-        for (int i = 0; i < n; i++)
-            memoryAllocation.add(-255);
+        // Initializes the memory allocation with NOT_ALLOCATED which means that the process is not allocated at the start
+        Allocator.clear(memoryAllocation, n);
 
         // The tree set (which is a red black tree) that contains the
         // blocks of the memory stored according to their available memory space,
@@ -81,18 +147,20 @@ public class WorstFit
         // Finds the biggest block for each process
         for (int i = 0; i < n; i++)
         {
-            // last() method will return the "biggest" element in this set,
+            long start = metrics != null ? System.nanoTime() : 0; // The time that the search for this process started
+
+            // last() method will return the "biggest" element in this set, if there are any blocks,
             // (In case two blocks have the same size the one with the smaller id will be returned since
             // we implemented the BlockInWorstFit' Class compareTo that way)
-            BlockInWorstFit biggestBlock = blocks.last();
+            BlockInWorstFit biggestBlock = blocks.isEmpty() ? null : blocks.last();
 
             // If a block that the current process fits was found
-            if (biggestBlock.getAvailableSpace() >= sizeOfProcesses[i])
+            if (biggestBlock != null && biggestBlock.getAvailableSpace() >= sizeOfProcesses[i])
             {
                 int biggestBlockId = biggestBlock.getId(); // The id of the block with the biggest size
                 int biggestBlockAvailableSpace = biggestBlock.getAvailableSpace(); // The available space of the block with the biggest size
 
-                memoryAllocation.set(i, biggestBlockId); // Allocates the block found for the process
+                memoryAllocation[i] = biggestBlockId; // Allocates the block found for the process
 
                 // Reduces available memory in that block by removing the previous Block object from the tree set and
                 // adding a new Block with the same id and with the reduced available memory.
@@ -100,26 +168,67 @@ public class WorstFit
                 blocks.remove(biggestBlock);
                 blocks.add(blockAfterAllocation);
             }
+
+            // Records the time that the search took, if the metrics are recorded
+            if (metrics != null)
+                metrics.recordRequest(System.nanoTime() - start, memoryAllocation[i] != NOT_ALLOCATED);
         }
+    }
+
+    // Allocates memory to blocks by storing them in an indexed max heap
+    private static void allocateBlockHeap(int sizeOfBlocks[], int sizeOfProcesses[], int memoryAllocation[], AllocationMetrics metrics)
+    {
+        // In this implementation of the worst-fit algorithm, since only the biggest block is ever needed,
+        // the blocks are kept in an array based binary max heap instead of a red black tree.
+        // The biggest block is always at the top of the heap, so it is found in O(1) time,
+        // and after an allocation its available space is reduced in place and it's sifted down in O(log(m)) time,
+        // without removing it from the heap or creating a new object for it.
+
+        // Finally, with this implementation the overall time complexity will be O(m + nlogm).
+
+        int n = sizeOfProcesses.length; // Number of total processes
+
+        // Initializes the memory allocation with NOT_ALLOCATED which means that the process is not allocated at the start
+        Allocator.clear(memoryAllocation, n);
+
+        // The heap that contains the blocks of the memory ordered according to their available memory space
+        BlockHeap blocks = new BlockHeap(sizeOfBlocks);
+
+        // If there are no blocks, no process can be allocated
+        if (blocks.isEmpty())
+            return;
 
-        return memoryAllocation;
+        // Finds the biggest block for each process
+        for (int i = 0; i < n; i++)
+        {
+            long start = metrics != null ? System.nanoTime() : 0; // The time that the search for this process started
+
+            // peek() method will return the biggest block of the heap,
+            // (In case two blocks have the same size the one with the smaller id will be returned)
+            int biggestBlockId = blocks.peek();
+            int biggestBlockAvailableSpace = blocks.availableSpace(biggestBlockId); // The available space of the block with the biggest size
+
+            // If the current process fits in the biggest block
+            if (biggestBlockAvailableSpace >= sizeOfProcesses[i])
+            {
+                memoryAllocation[i] = biggestBlockId; // Allocates the block found for the process
+
+                // Reduces available memory in that block and moves it down to its new position in the heap
+                blocks.decreaseKey(biggestBlockId, biggestBlockAvailableSpace - sizeOfProcesses[i]);
+            }
+
+            // Records the number of blocks checked (only the top of the heap) and the time that the search took, if the metrics are recorded
+            if (metrics != null)
+            {
+                metrics.recordProbes(1);
+                metrics.recordRequest(System.nanoTime() - start, memoryAllocation[i] != NOT_ALLOCATED);
+            }
+        }
     }
 
     // Method to print the memory allocation
     public static void printMemoryAllocation(ArrayList<Integer> memAllocation) {
-        System.out.println("Process No.\tBlock No.");
-        System.out.println("===========\t=========");
-        for (int i = 0; i < memAllocation.size(); i++)
-        {
-            System.out.print(" " + i + "\t\t");
-            // if a process has been allocated position -255, it means that it
-            // has not been actually allocated
-            if (memAllocation.get(i) != -255)
-                System.out.print(memAllocation.get(i));
-            else
-                System.out.print("Not Allocated");
-            System.out.println();
-        }
+        Allocator.printMemoryAllocation(Allocator.toArray(memAllocation));
     }
 
     // Driver Method to test your algorithm with a simple example
@@ -0,0 +1,87 @@
+package algorithms;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Measures the OnlineAllocator on a steady mix of allocations and frees:
+ * every operation picks one of a fixed number of slots and either frees the
+ * chunk in it or allocates a new one, so about half of the slots are live
+ * at any time. The score is operations (allocations and frees) per second.
+ * BUDDY measures a BuddyAllocator with the same capacity instead.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Thread)
+public class OnlineAllocatorBenchmark
+{
+    @Param({"FIRST_FIT", "NEXT_FIT", "BEST_FIT", "WORST_FIT", "BUDDY"})
+    public String policy;
+
+    @Param({"1000", "100000"})
+    public int slots;
+
+    @Param({"UNIFORM", "ZIPF", "BIMODAL"})
+    public Workloads.Distribution distribution;
+
+    private OnlineAllocator allocator;
+    private BuddyAllocator buddy; // Used instead of the allocator for BUDDY
+    private int[] live; // The offset of the chunk in every slot, or NOT_ALLOCATED
+    private int[] sizes; // The sizes that the allocations cycle through
+    private SplittableRandom random;
+    private int next = 0; // The index of the next size
+
+    @Setup(Level.Iteration)
+    public void setUp()
+    {
+        sizes = Workloads.processes(distribution, 1 << 20, 43);
+
+        // Room for all the slots with the average process size, so that both allocations and failures happen
+        long capacity = (long) slots * Arrays.stream(sizes).asLongStream().sum() / sizes.length;
+        if (policy.equals("BUDDY"))
+            buddy = new BuddyAllocator((int) Math.min(capacity, Integer.MAX_VALUE));
+        else
+            allocator = new OnlineAllocator((int) Math.min(capacity, Integer.MAX_VALUE), FitPolicy.valueOf(policy));
+
+        live = new int[slots];
+        Arrays.fill(live, Allocator.NOT_ALLOCATED);
+        random = new SplittableRandom(42);
+    }
+
+    @Benchmark
+    public int allocateOrFree()
+    {
+        int slot = random.nextInt(slots);
+        if (live[slot] != Allocator.NOT_ALLOCATED)
+        {
+            if (buddy != null)
+                buddy.free(live[slot]);
+            else
+                allocator.free(live[slot]);
+            live[slot] = Allocator.NOT_ALLOCATED;
+        }
+        else
+        {
+            live[slot] = buddy != null ? buddy.allocate(sizes[next]) : allocator.allocate(sizes[next]);
+            next = (next + 1) & (sizes.length - 1);
+        }
+        return live[slot];
+    }
+}
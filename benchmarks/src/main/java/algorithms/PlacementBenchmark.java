@@ -0,0 +1,161 @@
+package algorithms;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Measures the four placement strategies on a batch of as many processes as
+ * there are blocks. Every invocation allocates the whole batch on a fresh copy
+ * of the blocks, and the "requests" counter reports how many processes were
+ * placed per second, so the latency per request is its inverse. Run with
+ * -prof gc to also get the allocation rate, e.g.
+ *
+ *   java -jar benchmarks/target/benchmarks.jar PlacementBenchmark -prof gc
+ *
+ * The original implementations (linear search and TreeSets) can be measured
+ * with -p engine=ORIGINAL, but not for the biggest pools, since first fit and
+ * next fit then take O(nm) time. -p engine=SEGREGATED measures best fit with
+ * size class bins for the small blocks.
+ *
+ * BUDDY is the buddy system of BuddyFit, which rounds every process up to a
+ * power of two. At the end of every trial the number of processes allocated
+ * and the internal and external fragmentation are printed, so that the
+ * policies can be compared in how well they use the memory as well.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Thread)
+public class PlacementBenchmark
+{
+    // The placement strategies that can be measured
+    public enum Policy
+    {
+        FIRST_FIT, NEXT_FIT, BEST_FIT, WORST_FIT, BUDDY
+    }
+
+    // The implementations of the strategies that can be measured
+    public enum Engine
+    {
+        INDEXED, // Segment trees, BlockTree and BlockHeap
+        ORIGINAL, // Linear search and TreeSets
+        SEGREGATED // Size class bins in front of a BlockTree for best fit, the same as INDEXED for the other policies
+    }
+
+    @Param({"FIRST_FIT", "NEXT_FIT", "BEST_FIT", "WORST_FIT", "BUDDY"})
+    public Policy policy;
+
+    @Param({"INDEXED"})
+    public Engine engine;
+
+    @Param({"100", "1000", "10000", "100000", "1000000", "10000000"})
+    public int blocks;
+
+    @Param({"UNIFORM", "ZIPF", "BIMODAL"})
+    public Workloads.Distribution distribution;
+
+    private Allocator allocator;
+    private int sizeOfBlocks[]; // The blocks before any allocation
+    private int workingBlocks[]; // The copy of the blocks that every invocation allocates, since some strategies reduce them in place
+    private int sizeOfProcesses[];
+    private int memoryAllocation[];
+
+    // Counts the processes placed by the benchmark, reported by JMH as processes per second
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Requests
+    {
+        public long requests;
+
+        @Setup(Level.Iteration)
+        public void reset()
+        {
+            requests = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        boolean indexed = engine != Engine.ORIGINAL;
+        switch (policy)
+        {
+            case FIRST_FIT:
+                allocator = new FirstFit(indexed ? FirstFit.Search.SEGMENT_TREE : FirstFit.Search.LINEAR);
+                break;
+            case NEXT_FIT:
+                allocator = new NextFit(indexed ? NextFit.Search.SEGMENT_TREE : NextFit.Search.LINEAR);
+                break;
+            case BEST_FIT:
+                if (engine == Engine.SEGREGATED)
+                    allocator = new BestFit(BestFit.Index.SEGREGATED);
+                else
+                    allocator = new BestFit(indexed ? BestFit.Index.BLOCK_TREE : BestFit.Index.TREE_SET);
+                break;
+            case WORST_FIT:
+                allocator = new WorstFit(indexed ? WorstFit.Index.BLOCK_HEAP : WorstFit.Index.TREE_SET);
+                break;
+            case BUDDY:
+                allocator = new BuddyFit();
+                break;
+        }
+
+        sizeOfBlocks = Workloads.blocks(blocks, 42);
+        workingBlocks = new int[blocks];
+        sizeOfProcesses = Workloads.processes(distribution, blocks, 43);
+        memoryAllocation = new int[blocks];
+    }
+
+    // Prints how many processes the policy allocated and how fragmented the memory is after the batch,
+    // which doesn't change between invocations: the space wasted inside the allocated space (internal
+    // fragmentation, only the buddy system rounds the processes up) and 1 - largest block / free space
+    // (external fragmentation)
+    @TearDown(Level.Trial)
+    public void printFragmentation()
+    {
+        int availableSpace[] = sizeOfBlocks.clone();
+        allocator.allocate(availableSpace, sizeOfProcesses, memoryAllocation);
+
+        long allocated = 0;
+        for (int i = 0; i < sizeOfProcesses.length; i++)
+        {
+            if (memoryAllocation[i] != Allocator.NOT_ALLOCATED)
+            {
+                allocated++;
+                if (policy == Policy.BEST_FIT || policy == Policy.WORST_FIT) // These leave the blocks as they are
+                    availableSpace[memoryAllocation[i]] -= sizeOfProcesses[i];
+            }
+        }
+
+        AllocationMetrics metrics = new AllocationMetrics();
+        metrics.recordFragmentation(availableSpace);
+        double internal = policy == Policy.BUDDY ? BuddyFit.internalFragmentation(sizeOfProcesses, memoryAllocation) : 0;
+        System.out.printf("%nallocated %d of %d processes, internal fragmentation %.2f%%, external fragmentation %.2f%%%n",
+                allocated, sizeOfProcesses.length, internal, 100 * metrics.getExternalFragmentation());
+    }
+
+    @Benchmark
+    public int[] allocate(Requests counters)
+    {
+        System.arraycopy(sizeOfBlocks, 0, workingBlocks, 0, blocks);
+        allocator.allocate(workingBlocks, sizeOfProcesses, memoryAllocation);
+        counters.requests += sizeOfProcesses.length;
+        return memoryAllocation;
+    }
+}
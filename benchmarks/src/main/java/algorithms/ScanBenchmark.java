@@ -0,0 +1,100 @@
+package algorithms;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Compares the three searches of first fit and next fit (one block at a time,
+ * SIMD and segment tree) on small and medium pools, in order to find the pool
+ * size where the segment tree starts to beat the scans. Like PlacementBenchmark,
+ * every invocation allocates as many processes as there are blocks on a fresh
+ * copy of the blocks and the "requests" counter reports processes per second:
+ *
+ *   java -jar benchmarks/target/benchmarks.jar ScanBenchmark
+ *
+ * The forks are started with the jdk.incubator.vector module, so the VECTOR
+ * search uses SIMD instructions. Adding -jvmArgsAppend -Dalgorithms.vector=false
+ * measures its scalar fallback instead.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@State(Scope.Thread)
+public class ScanBenchmark
+{
+    // The searches that can be measured
+    public enum Search
+    {
+        LINEAR, VECTOR, SEGMENT_TREE
+    }
+
+    @Param({"FIRST_FIT", "NEXT_FIT"})
+    public String policy;
+
+    @Param({"LINEAR", "VECTOR", "SEGMENT_TREE"})
+    public Search search;
+
+    @Param({"16", "64", "256", "1024", "4096", "16384"})
+    public int blocks;
+
+    @Param({"UNIFORM", "ZIPF", "BIMODAL"})
+    public Workloads.Distribution distribution;
+
+    private Allocator allocator;
+    private int sizeOfBlocks[]; // The blocks before any allocation
+    private int workingBlocks[]; // The copy of the blocks that every invocation allocates, since the searches reduce them in place
+    private int sizeOfProcesses[];
+    private int memoryAllocation[];
+
+    // Counts the processes placed by the benchmark, reported by JMH as processes per second
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Requests
+    {
+        public long requests;
+
+        @Setup(Level.Iteration)
+        public void reset()
+        {
+            requests = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        if (FitPolicy.valueOf(policy) == FitPolicy.FIRST_FIT)
+            allocator = new FirstFit(FirstFit.Search.valueOf(search.name()));
+        else
+            allocator = new NextFit(NextFit.Search.valueOf(search.name()));
+
+        sizeOfBlocks = Workloads.blocks(blocks, 42);
+        workingBlocks = new int[blocks];
+        sizeOfProcesses = Workloads.processes(distribution, blocks, 43);
+        memoryAllocation = new int[blocks];
+    }
+
+    @Benchmark
+    public int[] allocate(Requests counters)
+    {
+        System.arraycopy(sizeOfBlocks, 0, workingBlocks, 0, blocks);
+        allocator.allocate(workingBlocks, sizeOfProcesses, memoryAllocation);
+        counters.requests += sizeOfProcesses.length;
+        return memoryAllocation;
+    }
+}
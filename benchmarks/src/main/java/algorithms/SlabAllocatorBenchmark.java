@@ -0,0 +1,122 @@
+package algorithms;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Measures the SlabAllocator on fixed-size records (of four sizes) that many
+ * threads allocate and free at the same time, the same way as
+ * StripedAllocatorBenchmark, against a StripedAllocator with as many arenas
+ * as the most threads that are measured, which searches the holes of the
+ * memory for every record:
+ *
+ *   java -jar benchmarks/target/benchmarks.jar SlabAllocatorBenchmark -t 4
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Threads(Threads.MAX)
+public class SlabAllocatorBenchmark
+{
+    static final int RECORD_SIZES[] = {16, 32, 64, 128}; // The sizes of the records, which are also the slot sizes
+
+    // The allocator shared by all the threads
+    @State(Scope.Benchmark)
+    public static class Shared
+    {
+        @Param({"SLAB", "STRIPED"})
+        public String allocator;
+
+        @Param({"FIRST_FIT", "BEST_FIT"})
+        public String policy;
+
+        SlabAllocator slabs;
+        StripedAllocator striped;
+
+        @Setup(Level.Iteration)
+        public void setUp()
+        {
+            // Room for 32 threads with SLOTS live records of the biggest size each
+            int capacity = 32 * ThreadSlots.SLOTS * RECORD_SIZES[RECORD_SIZES.length - 1];
+            if (allocator.equals("SLAB"))
+                slabs = new SlabAllocator(new OnlineAllocator(capacity, FitPolicy.valueOf(policy)), RECORD_SIZES, 64, 64);
+            else
+                striped = new StripedAllocator(capacity / 32, 32, FitPolicy.valueOf(policy));
+        }
+
+        long allocate(int size)
+        {
+            return slabs != null ? slabs.allocate(size) : striped.allocate(size);
+        }
+
+        void free(long handle)
+        {
+            if (slabs != null)
+                slabs.free(handle);
+            else
+                striped.free(handle);
+        }
+    }
+
+    // The records of every thread
+    @State(Scope.Thread)
+    public static class ThreadSlots
+    {
+        static final int SLOTS = 4096;
+
+        long[] live = new long[SLOTS]; // The handle of the record in every slot, or NOT_ALLOCATED
+        int[] sizes = new int[SLOTS];
+        SplittableRandom random = new SplittableRandom(42);
+
+        @Setup(Level.Iteration)
+        public void setUp()
+        {
+            Arrays.fill(live, Allocator.NOT_ALLOCATED);
+            for (int i = 0; i < SLOTS; i++)
+                sizes[i] = RECORD_SIZES[random.nextInt(RECORD_SIZES.length)];
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown(Shared shared)
+        {
+            for (long handle : live)
+                if (handle != Allocator.NOT_ALLOCATED)
+                    shared.free(handle);
+            if (shared.slabs != null)
+                shared.slabs.flush();
+        }
+    }
+
+    @Benchmark
+    public long allocateOrFree(Shared shared, ThreadSlots slots)
+    {
+        int slot = slots.random.nextInt(ThreadSlots.SLOTS);
+        long handle = slots.live[slot];
+        if (handle != Allocator.NOT_ALLOCATED)
+        {
+            shared.free(handle);
+            slots.live[slot] = Allocator.NOT_ALLOCATED;
+        }
+        else
+            slots.live[slot] = shared.allocate(slots.sizes[slot]);
+        return handle;
+    }
+}
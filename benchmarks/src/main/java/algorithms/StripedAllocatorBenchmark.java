@@ -0,0 +1,100 @@
+package algorithms;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Measures the StripedAllocator when many threads allocate and free at the
+ * same time. Every thread keeps its own slots and either frees the chunk in
+ * a slot or allocates a new one, like OnlineAllocatorBenchmark. With
+ * arenas=1 all the threads share a single lock, which is the baseline that
+ * the striped arenas are compared against. The scaling is seen by running
+ * the benchmark with different thread counts, e.g.
+ *
+ *   for t in 1 2 4 8 16 32; do java -jar benchmarks/target/benchmarks.jar StripedAllocatorBenchmark -t $t; done
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Threads(Threads.MAX)
+public class StripedAllocatorBenchmark
+{
+    // The allocator shared by all the threads
+    @State(Scope.Benchmark)
+    public static class Shared
+    {
+        @Param({"FIRST_FIT", "BEST_FIT"})
+        public String policy;
+
+        @Param({"1", "32"})
+        public int arenas;
+
+        StripedAllocator allocator;
+
+        @Setup(Level.Iteration)
+        public void setUp()
+        {
+            // Room for 32 threads with SLOTS live chunks of the average uniform process size each
+            long capacity = 32L * ThreadSlots.SLOTS * Workloads.MAX_PROCESS_SIZE / 2;
+            allocator = new StripedAllocator((int) (capacity / arenas), arenas, FitPolicy.valueOf(policy));
+        }
+    }
+
+    // The chunks of every thread
+    @State(Scope.Thread)
+    public static class ThreadSlots
+    {
+        static final int SLOTS = 4096;
+
+        long[] live = new long[SLOTS]; // The handle of the chunk in every slot, or NOT_ALLOCATED
+        int[] sizes = Workloads.processes(Workloads.Distribution.UNIFORM, SLOTS, 43);
+        SplittableRandom random = new SplittableRandom(42);
+
+        @Setup(Level.Iteration)
+        public void setUp()
+        {
+            Arrays.fill(live, Allocator.NOT_ALLOCATED);
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown(Shared shared)
+        {
+            for (long handle : live)
+                if (handle != Allocator.NOT_ALLOCATED)
+                    shared.allocator.free(handle);
+        }
+    }
+
+    @Benchmark
+    public long allocateOrFree(Shared shared, ThreadSlots slots)
+    {
+        int slot = slots.random.nextInt(ThreadSlots.SLOTS);
+        long handle = slots.live[slot];
+        if (handle != Allocator.NOT_ALLOCATED)
+        {
+            shared.allocator.free(handle);
+            slots.live[slot] = Allocator.NOT_ALLOCATED;
+        }
+        else
+            slots.live[slot] = shared.allocator.allocate(slots.sizes[slot]);
+        return handle;
+    }
+}
@@ -0,0 +1,74 @@
+package algorithms;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// Generates the sizes of the blocks and of the processes that the benchmarks allocate.
+// The same seed always gives the same sizes, so every policy is measured against the same workload.
+public final class Workloads
+{
+    static final int MAX_BLOCK_SIZE = 1024; // The biggest block, in KBs
+    static final int MAX_PROCESS_SIZE = 512; // The biggest process, in KBs
+
+    // The distributions that the sizes of the processes can be drawn from
+    public enum Distribution
+    {
+        UNIFORM, // Every size from 1 to MAX_PROCESS_SIZE is equally likely
+        ZIPF, // Size k is drawn with probability proportional to 1/k^1.1, so most processes are small
+        BIMODAL // 80% of the processes are small (8 to 64) and 20% are big (256 to MAX_PROCESS_SIZE)
+    }
+
+    private Workloads()
+    {
+    }
+
+    // Returns m blocks with sizes drawn uniformly from 1 to MAX_BLOCK_SIZE
+    static int[] blocks(int m, long seed)
+    {
+        Random random = new Random(seed);
+        int sizeOfBlocks[] = new int[m];
+        for (int i = 0; i < m; i++)
+            sizeOfBlocks[i] = 1 + random.nextInt(MAX_BLOCK_SIZE);
+        return sizeOfBlocks;
+    }
+
+    // Returns n processes with sizes drawn from the given distribution
+    static int[] processes(Distribution distribution, int n, long seed)
+    {
+        Random random = new Random(seed);
+        int sizeOfProcesses[] = new int[n];
+
+        switch (distribution)
+        {
+            case UNIFORM:
+                for (int i = 0; i < n; i++)
+                    sizeOfProcesses[i] = 1 + random.nextInt(MAX_PROCESS_SIZE);
+                break;
+
+            case ZIPF:
+                // The cumulative probability of every size, searched with a uniform number for every process
+                double cumulative[] = new double[MAX_PROCESS_SIZE];
+                double sum = 0;
+                for (int k = 1; k <= MAX_PROCESS_SIZE; k++)
+                {
+                    sum += 1 / Math.pow(k, 1.1);
+                    cumulative[k - 1] = sum;
+                }
+                for (int i = 0; i < n; i++)
+                {
+                    int k = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+                    sizeOfProcesses[i] = 1 + (k >= 0 ? k : Math.min(-k - 1, MAX_PROCESS_SIZE - 1));
+                }
+                break;
+
+            case BIMODAL:
+                for (int i = 0; i < n; i++)
+                    sizeOfProcesses[i] = random.nextInt(5) < 4
+                            ? 8 + random.nextInt(57)
+                            : 256 + random.nextInt(MAX_PROCESS_SIZE - 255);
+                break;
+        }
+
+        return sizeOfProcesses;
+    }
+}
@@ -0,0 +1,87 @@
+package algorithms;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+// Runs an AdaptiveAllocator through enough windows to switch policy several times and checks the holes that the
+// policies share against a flag for every unit of the memory
+class AdaptiveAllocatorTest
+{
+    private static final int CAPACITY = 1 << 14;
+
+    @Test
+    void policySwitchesKeepTheSharedHolesConsistent()
+    {
+        AdaptiveAllocator allocator = new AdaptiveAllocator(CAPACITY);
+        boolean used[] = new boolean[CAPACITY];
+        List<Integer> offsets = new ArrayList<>();
+        Random random = new Random(3);
+        boolean policiesUsed[] = new boolean[FitPolicy.values().length];
+
+        // Small requests first and then bigger, more varied ones, so the size distribution shifts on the way
+        for (int request = 0; request < 12 * AdaptiveAllocator.WINDOW; request++)
+        {
+            policiesUsed[allocator.policy().ordinal()] = true;
+            int maxSize = request < 6 * AdaptiveAllocator.WINDOW ? 16 : 256;
+
+            int size = 1 + random.nextInt(maxSize);
+            int offset = allocator.allocate(size);
+            if (offset != Allocator.NOT_ALLOCATED)
+            {
+                assertEquals(size, allocator.sizeOf(offset));
+                for (int unit = offset; unit < offset + size; unit++)
+                {
+                    assertFalse(used[unit], "unit " + unit + " allocated twice");
+                    used[unit] = true;
+                }
+                offsets.add(offset);
+            }
+
+            // Frees about as much as it allocates once the memory is half full
+            if (!offsets.isEmpty() && (random.nextBoolean() || allocator.freeSpace() < CAPACITY / 2))
+            {
+                int freed = offsets.remove(random.nextInt(offsets.size()));
+                for (int unit = freed; unit < freed + allocator.sizeOf(freed); unit++)
+                    used[unit] = false;
+                allocator.free(freed);
+            }
+
+            if (request % 1024 == 0)
+                assertSameHoles(used, allocator);
+        }
+
+        // Every policy is tried once at the start, so the holes have been shared by all of them
+        assertTrue(allocator.switches() >= FitPolicy.values().length - 1);
+        for (FitPolicy policy : FitPolicy.values())
+            assertTrue(policiesUsed[policy.ordinal()], policy + " was never used");
+        assertSameHoles(used, allocator);
+
+        for (int offset : offsets)
+            allocator.free(offset);
+        assertEquals(CAPACITY, allocator.freeSpace());
+        assertEquals(CAPACITY, allocator.largestHole());
+    }
+
+    // Checks that the free space and the biggest hole of the allocator are the ones that the flags give
+    private static void assertSameHoles(boolean used[], AdaptiveAllocator allocator)
+    {
+        long free = 0;
+        int largest = 0;
+        int run = 0;
+        for (boolean unit : used)
+        {
+            run = unit ? 0 : run + 1;
+            free += unit ? 0 : 1;
+            largest = Math.max(largest, run);
+        }
+        assertEquals(free, allocator.freeSpace());
+        assertEquals(largest, allocator.largestHole());
+    }
+}
@@ -0,0 +1,108 @@
+package algorithms;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+// Checks that the searches record the blocks, bitmap words or tree nodes that they probe in AllocationMetrics,
+// and that the searches that don't count them report N/A instead of 0 probes
+class AllocationMetricsTest
+{
+    // Returns the metrics of the given allocator after it allocates a random batch
+    private static AllocationMetrics allocate(Allocator allocator, AllocationMetrics metrics)
+    {
+        Random random = new Random(3);
+        int sizeOfBlocks[] = Batches.randomSizes(random, 1000, 0, 1000);
+        int sizeOfProcesses[] = Batches.randomSizes(random, 2000, 1, 500);
+        allocator.allocate(sizeOfBlocks, sizeOfProcesses);
+        assertEquals(2000, metrics.getRequests());
+        return metrics;
+    }
+
+    // Checks that every request recorded probes, at least one and fewer than the blocks
+    private static void assertProbed(AllocationMetrics metrics)
+    {
+        assertEquals(metrics.getRequests() > 0, metrics.getProbes() > 0);
+        assertTrue(metrics.getMeanProbes() >= 1 && metrics.getMeanProbes() < 1000, "mean probes " + metrics.getMeanProbes());
+        assertTrue(metrics.getSnapshot().contains("probes per request:     " + String.format("%.2f", metrics.getMeanProbes())));
+    }
+
+    @Test
+    void indexedSearchesRecordTheNodesTheyVisit()
+    {
+        for (FirstFit.Search search : FirstFit.Search.values())
+        {
+            FirstFit firstFit = new FirstFit(search);
+            AllocationMetrics metrics = new AllocationMetrics();
+            firstFit.setMetrics(metrics);
+            assertProbed(allocate(firstFit, metrics));
+        }
+        for (NextFit.Search search : NextFit.Search.values())
+        {
+            NextFit nextFit = new NextFit(search);
+            AllocationMetrics metrics = new AllocationMetrics();
+            nextFit.setMetrics(metrics);
+            assertProbed(allocate(nextFit, metrics));
+        }
+
+        BestFit bestFit = new BestFit(BestFit.Index.BLOCK_TREE);
+        AllocationMetrics metrics = new AllocationMetrics();
+        bestFit.setMetrics(metrics);
+        assertProbed(allocate(bestFit, metrics));
+
+        bestFit = new BestFit(BestFit.Index.SEGREGATED);
+        metrics = new AllocationMetrics();
+        bestFit.setMetrics(metrics);
+        assertProbed(allocate(bestFit, metrics));
+
+        BuddyFit buddyFit = new BuddyFit();
+        metrics = new AllocationMetrics();
+        buddyFit.setMetrics(metrics);
+        assertProbed(allocate(buddyFit, metrics));
+
+        WorstFit worstFit = new WorstFit(WorstFit.Index.BLOCK_HEAP);
+        metrics = new AllocationMetrics();
+        worstFit.setMetrics(metrics);
+        assertProbed(allocate(worstFit, metrics));
+        assertEquals(1, metrics.getMeanProbes());
+    }
+
+    @Test
+    void treeSetSearchesReportNoProbes()
+    {
+        BestFit bestFit = new BestFit(BestFit.Index.TREE_SET);
+        AllocationMetrics metrics = new AllocationMetrics();
+        bestFit.setMetrics(metrics);
+        allocate(bestFit, metrics);
+
+        assertEquals(0, metrics.getProbes());
+        assertTrue(Double.isNaN(metrics.getMeanProbes()));
+        assertTrue(metrics.getSnapshot().contains("probes per request:     N/A"));
+    }
+
+    @Test
+    void onlineAllocatorRecordsTheNodesItVisits()
+    {
+        for (FitPolicy policy : FitPolicy.values())
+        {
+            OnlineAllocator memory = new OnlineAllocator(1 << 16, policy);
+            AllocationMetrics metrics = new AllocationMetrics();
+            memory.setMetrics(metrics);
+
+            Random random = new Random(4);
+            int offsets[] = new int[1000];
+            for (int k = 0; k < offsets.length; k++)
+                offsets[k] = memory.allocate(1 + random.nextInt(64));
+            for (int k = 0; k < offsets.length; k += 2)
+                memory.free(offsets[k]);
+            for (int k = 0; k < offsets.length; k++)
+                memory.allocate(1 + random.nextInt(64));
+
+            assertEquals(2000, metrics.getRequests());
+            assertTrue(metrics.getMeanProbes() >= 1, policy + ": mean probes " + metrics.getMeanProbes());
+        }
+    }
+}
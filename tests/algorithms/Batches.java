@@ -0,0 +1,55 @@
+package algorithms;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.util.Random;
+
+// Random batches of blocks and processes for the tests that compare the allocators with each other
+final class Batches
+{
+    // The numbers of blocks of the batches, around the sizes where the searches change
+    // (the leaves of a segment tree, the lanes of a SIMD vector) and some bigger ones
+    static final int[] BLOCK_COUNTS = {0, 1, 2, 3, 7, 8, 9, 15, 16, 17, 31, 33, 64, 100, 1000, 4099};
+
+    private static final int SEEDS = 5; // The number of batches of every size
+
+    private Batches()
+    {
+    }
+
+    // Returns the given number of random sizes from minSize to maxSize, a small range gives many equal sizes
+    static int[] randomSizes(Random random, int count, int minSize, int maxSize)
+    {
+        int sizes[] = new int[count];
+        for (int i = 0; i < sizes.length; i++)
+            sizes[i] = minSize + random.nextInt(maxSize - minSize + 1);
+        return sizes;
+    }
+
+    // Checks that the given allocator allocates every process to the same block as the reference allocator,
+    // and leaves the same available space in the blocks, on random batches of every size in BLOCK_COUNTS
+    static void assertSameAllocation(Allocator reference, Allocator allocator)
+    {
+        for (int m : BLOCK_COUNTS)
+        {
+            for (int seed = 0; seed < SEEDS; seed++)
+            {
+                Random random = new Random(31L * m + seed);
+
+                // Few distinct sizes on some batches, for the ties between blocks with equal space
+                int maxSize = seed % 2 == 0 ? 8 : 1000;
+                int sizeOfBlocks[] = randomSizes(random, m, 0, maxSize);
+                int sizeOfProcesses[] = randomSizes(random, 2 * m + 5, 1, maxSize / 2);
+
+                int expectedBlocks[] = sizeOfBlocks.clone();
+                int expected[] = reference.allocate(expectedBlocks, sizeOfProcesses);
+                int actualBlocks[] = sizeOfBlocks.clone();
+                int actual[] = allocator.allocate(actualBlocks, sizeOfProcesses);
+
+                String batch = m + " blocks, seed " + seed;
+                assertArrayEquals(expected, actual, batch);
+                assertArrayEquals(expectedBlocks, actualBlocks, batch);
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package algorithms;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+// Compares the indexes of best fit with the TreeSet of Block objects
+class BestFitTest
+{
+    @Test
+    void blockTreeMatchesTreeSet()
+    {
+        Batches.assertSameAllocation(new BestFit(BestFit.Index.TREE_SET), new BestFit(BestFit.Index.BLOCK_TREE));
+    }
+
+    @Test
+    void segregatedMatchesTreeSet()
+    {
+        // The default bins, which hold most of the blocks of the batches with small sizes,
+        // and a few bins, so that the processes often have to go on to the tree
+        assertSameSpaces(new BestFit(BestFit.Index.SEGREGATED));
+        assertSameSpaces(new BestFit(8));
+        assertSameSpaces(new BestFit(1));
+    }
+
+    @Test
+    void bestFitPrimitiveMatchesBestFit()
+    {
+        int sizeOfBlocks[] = {100, 500, 200, 300, 600};
+        int sizeOfProcesses[] = {212, 417, 112, 426};
+
+        assertEquals(BestFit.bestFit(sizeOfBlocks.clone(), sizeOfProcesses),
+                BestFit.bestFitPrimitive(sizeOfBlocks.clone(), sizeOfProcesses));
+    }
+
+    // Checks that the given allocator allocates every process to a block with the same available space as the
+    // TreeSet of Block objects (the block itself can be another one with the same space), on random batches
+    private static void assertSameSpaces(BestFit allocator)
+    {
+        BestFit reference = new BestFit(BestFit.Index.TREE_SET);
+        for (int m : Batches.BLOCK_COUNTS)
+        {
+            for (int seed = 0; seed < 5; seed++)
+            {
+                Random random = new Random(31L * m + seed);
+                int maxSize = seed % 2 == 0 ? 16 : 1000;
+                int sizeOfBlocks[] = Batches.randomSizes(random, m, 0, maxSize);
+                int sizeOfProcesses[] = Batches.randomSizes(random, 2 * m + 5, 1, maxSize / 2);
+
+                String batch = m + " blocks, seed " + seed;
+                int expected[] = availableSpaces(sizeOfBlocks, sizeOfProcesses, reference.allocate(sizeOfBlocks, sizeOfProcesses));
+                int actual[] = availableSpaces(sizeOfBlocks, sizeOfProcesses, allocator.allocate(sizeOfBlocks, sizeOfProcesses));
+                assertArrayEquals(expected, actual, batch);
+            }
+        }
+    }
+
+    // Returns the available space of the block that every process is allocated to, right before the process
+    // is allocated to it, or NOT_ALLOCATED, followed by the available spaces of all the blocks in ascending order
+    private static int[] availableSpaces(int sizeOfBlocks[], int sizeOfProcesses[], int memoryAllocation[])
+    {
+        int n = sizeOfProcesses.length;
+        int availableSpace[] = sizeOfBlocks.clone();
+        int spaces[] = new int[n + availableSpace.length];
+        for (int i = 0; i < n; i++)
+        {
+            int j = memoryAllocation[i];
+            spaces[i] = j == Allocator.NOT_ALLOCATED ? Allocator.NOT_ALLOCATED : availableSpace[j];
+            if (j != Allocator.NOT_ALLOCATED)
+                availableSpace[j] -= sizeOfProcesses[i];
+        }
+
+        Arrays.sort(availableSpace);
+        System.arraycopy(availableSpace, 0, spaces, n, availableSpace.length);
+        return spaces;
+    }
+}
@@ -0,0 +1,36 @@
+package algorithms;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+// Compares the SIMD scan of VectorScan with the scan that checks the blocks one by one
+class BlockScanTest
+{
+    @Test
+    void vectorScanMatchesScalarScan()
+    {
+        // The tests run with the jdk.incubator.vector module, but the CPU may not have wide enough SIMD registers
+        assumeTrue(BlockScan.VECTORIZED, "the Vector API is not available");
+
+        Random random = new Random(12);
+        for (int m : Batches.BLOCK_COUNTS)
+        {
+            int sizeOfBlocks[] = Batches.randomSizes(random, m, 0, 100);
+            for (int k = 0; k < 200; k++)
+            {
+                // Random ranges, including empty ones and ones that end in the middle of a vector
+                int from = random.nextInt(m + 1);
+                int to = from + random.nextInt(m - from + 1);
+                int size = 1 + random.nextInt(110);
+
+                assertEquals(BlockScan.scalarFirstAtLeast(sizeOfBlocks, from, to, size),
+                        VectorScan.firstAtLeast(sizeOfBlocks, from, to, size),
+                        m + " blocks, [" + from + ", " + to + "), size " + size);
+            }
+        }
+    }
+}
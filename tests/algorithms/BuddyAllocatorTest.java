@@ -0,0 +1,133 @@
+package algorithms;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+// Checks that the buddy system splits and merges its chunks by address arithmetic, and that BuddyFit
+// places every process like first fit over a BuddyAllocator per block
+class BuddyAllocatorTest
+{
+    @Test
+    void chunksAreSplitInHalvesAndMergedWithTheirBuddies()
+    {
+        BuddyAllocator buddies = new BuddyAllocator(64);
+
+        // The first unit splits 64 into 32, 16, 8, 4, 2 and 1, keeping the first half every time
+        assertEquals(0, buddies.allocate(1));
+        assertEquals(32, buddies.largestFree());
+        assertEquals(63, buddies.freeSpace());
+
+        // Its buddy is the free chunk of order 0 and the next 2 units come from the free chunk of order 1
+        assertEquals(1, buddies.allocate(1));
+        assertEquals(2, buddies.allocate(2));
+        assertEquals(4, buddies.allocate(3));
+        assertEquals(4, buddies.sizeOf(4));
+        assertEquals(56, buddies.freeSpace());
+
+        // Freeing 0 can't merge while its buddy 1 is allocated, freeing 1 merges them and then with 2 once it's free
+        buddies.free(0);
+        assertEquals(32, buddies.largestFree());
+        buddies.free(1);
+        buddies.free(4);
+        assertEquals(32, buddies.largestFree());
+        buddies.free(2);
+        assertEquals(64, buddies.largestFree());
+        assertEquals(64, buddies.freeSpace());
+
+        assertThrows(IllegalArgumentException.class, () -> buddies.free(2));
+    }
+
+    @Test
+    void randomRequestsNeverOverlapAndMergeBackToTheStartingChunks()
+    {
+        int capacity = 600; // 512 + 64 + 16 + 8
+        BuddyAllocator buddies = new BuddyAllocator(capacity);
+        boolean used[] = new boolean[capacity];
+        List<Integer> offsets = new ArrayList<>();
+        Random random = new Random(7);
+
+        for (int operation = 0; operation < 20000; operation++)
+        {
+            if (offsets.isEmpty() || random.nextInt(3) != 0)
+            {
+                int size = 1 + random.nextInt(random.nextBoolean() ? 8 : 100);
+                int offset = buddies.allocate(size);
+                if (offset == Allocator.NOT_ALLOCATED)
+                    continue;
+
+                // Every chunk is a power of two at least as big as the request and starts at a multiple of its size
+                int chunk = buddies.sizeOf(offset);
+                assertEquals(BuddyAllocator.chunkSize(size), chunk);
+                assertEquals(0, offset % chunk);
+                for (int unit = offset; unit < offset + chunk; unit++)
+                {
+                    assertFalse(used[unit], "unit " + unit + " allocated twice");
+                    used[unit] = true;
+                }
+                offsets.add(offset);
+            }
+            else
+            {
+                int offset = offsets.remove(random.nextInt(offsets.size()));
+                int chunk = buddies.sizeOf(offset);
+                for (int unit = offset; unit < offset + chunk; unit++)
+                    used[unit] = false;
+                buddies.free(offset);
+            }
+
+            long free = 0;
+            for (boolean unit : used)
+                free += unit ? 0 : 1;
+            assertEquals(free, buddies.freeSpace());
+        }
+
+        for (int offset : offsets)
+            buddies.free(offset);
+        assertEquals(capacity, buddies.freeSpace());
+        assertEquals(512, buddies.largestFree());
+        assertEquals(0, buddies.allocate(512));
+    }
+
+    @Test
+    void buddyFitMatchesABuddyAllocatorPerBlock()
+    {
+        for (int m : Batches.BLOCK_COUNTS)
+        {
+            if (m > 1000)
+                continue; // A BuddyAllocator per block of the biggest batch is slow for no more coverage
+            Random random = new Random(m);
+            int sizeOfBlocks[] = Batches.randomSizes(random, m, 0, 1000);
+            int sizeOfProcesses[] = Batches.randomSizes(random, 2 * m + 5, 1, 300);
+
+            // First fit over a real buddy system in every block
+            BuddyAllocator blocks[] = new BuddyAllocator[m];
+            for (int j = 0; j < m; j++)
+                if (sizeOfBlocks[j] > 0)
+                    blocks[j] = new BuddyAllocator(sizeOfBlocks[j]);
+            int expected[] = new int[sizeOfProcesses.length];
+            for (int i = 0; i < sizeOfProcesses.length; i++)
+            {
+                expected[i] = Allocator.NOT_ALLOCATED;
+                for (int j = 0; j < m && expected[i] == Allocator.NOT_ALLOCATED; j++)
+                    if (blocks[j] != null && blocks[j].allocate(sizeOfProcesses[i]) != Allocator.NOT_ALLOCATED)
+                        expected[i] = j;
+            }
+            int expectedBlocks[] = new int[m];
+            for (int j = 0; j < m; j++)
+                expectedBlocks[j] = blocks[j] == null ? 0 : (int) blocks[j].freeSpace();
+
+            int actualBlocks[] = sizeOfBlocks.clone();
+            int actual[] = new BuddyFit().allocate(actualBlocks, sizeOfProcesses);
+            assertArrayEquals(expected, actual, m + " blocks");
+            assertArrayEquals(expectedBlocks, actualBlocks, m + " blocks");
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package algorithms;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Saves allocators with random chunks, restores them and checks that the restored ones have the same state and
+// make the same choices, and that files that are not whole checkpoints are rejected with an IOException
+class CheckpointTest
+{
+    private static final int CAPACITY = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void restoredAllocatorHasTheSameStateAndChoices() throws IOException
+    {
+        for (FitPolicy policy : FitPolicy.values())
+        {
+            for (boolean switchable : new boolean[] {false, true})
+            {
+                Random random = new Random(policy.ordinal());
+                OnlineAllocator memory = new OnlineAllocator(CAPACITY, policy, switchable);
+                List<Integer> offsets = fill(memory, random);
+
+                Path file = directory.resolve(policy + "-" + switchable);
+                Checkpoint.save(memory, file);
+                OnlineAllocator restored = Checkpoint.restore(file);
+
+                String allocator = policy + (switchable ? ", switchable" : "");
+                assertEquals(memory.capacity(), restored.capacity(), allocator);
+                assertEquals(memory.policy(), restored.policy(), allocator);
+                assertEquals(memory.switchable(), restored.switchable(), allocator);
+                assertEquals(memory.pointer(), restored.pointer(), allocator);
+                assertArrayEquals(memory.chunkSizes(), restored.chunkSizes(), allocator);
+                assertArrayEquals(memory.holesBySize(), restored.holesBySize(), allocator);
+                assertEquals(memory.freeSpace(), restored.freeSpace(), allocator);
+                assertEquals(memory.holeCount(), restored.holeCount(), allocator);
+
+                // The same requests go to the same holes in both
+                for (int request = 0; request < 500; request++)
+                {
+                    if (request % 3 == 0 && !offsets.isEmpty())
+                    {
+                        int offset = offsets.remove(random.nextInt(offsets.size()));
+                        memory.free(offset);
+                        restored.free(offset);
+                    }
+                    else
+                    {
+                        int size = 1 + random.nextInt(40);
+                        int offset = memory.allocate(size);
+                        assertEquals(offset, restored.allocate(size), allocator);
+                        if (offset != Allocator.NOT_ALLOCATED)
+                            offsets.add(offset);
+                    }
+                }
+                assertArrayEquals(memory.chunkSizes(), restored.chunkSizes(), allocator);
+            }
+        }
+    }
+
+    @Test
+    void fileWithABadMagicNumberIsRejected() throws IOException
+    {
+        Path file = save(FitPolicy.BEST_FIT);
+        ByteBuffer bytes = read(file);
+        bytes.putInt(0, Checkpoint.MAGIC + 1);
+        Files.write(file, bytes.array());
+
+        assertThrows(IOException.class, () -> Checkpoint.restore(file));
+    }
+
+    @Test
+    void truncatedFileIsRejected() throws IOException
+    {
+        Path file = save(FitPolicy.FIRST_FIT);
+        byte bytes[] = Files.readAllBytes(file);
+
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 4));
+        assertThrows(IOException.class, () -> Checkpoint.restore(file));
+        Files.write(file, Arrays.copyOf(bytes, Checkpoint.HEADER_SIZE - 1));
+        assertThrows(IOException.class, () -> Checkpoint.restore(file));
+    }
+
+    @Test
+    void headerThatDoesNotMatchTheSizeOfTheFileIsRejected() throws IOException
+    {
+        Path file = save(FitPolicy.NEXT_FIT);
+        ByteBuffer bytes = read(file);
+        bytes.putInt(24, bytes.getInt(24) + 1); // One more chunk than the file holds
+        Files.write(file, bytes.array());
+
+        assertThrows(IOException.class, () -> Checkpoint.restore(file));
+    }
+
+    @Test
+    void chunksThatDoNotCoverTheMemoryAreRejected() throws IOException
+    {
+        Path file = save(FitPolicy.WORST_FIT);
+        ByteBuffer bytes = read(file);
+        int first = Checkpoint.HEADER_SIZE;
+        bytes.putInt(first, bytes.getInt(first) + 1);
+        Files.write(file, bytes.array());
+
+        assertThrows(IOException.class, () -> Checkpoint.restore(file));
+    }
+
+    @Test
+    void holesBySizeWithTheWrongNumberOfHolesIsRejected() throws IOException
+    {
+        Path file = save(FitPolicy.BEST_FIT);
+        ByteBuffer bytes = read(file);
+        int holes = bytes.getInt(28);
+
+        // One hole less in the header and in the column, so the size of the file still matches the header
+        bytes.putInt(28, holes - 1);
+        Files.write(file, Arrays.copyOf(bytes.array(), bytes.capacity() - 4));
+        assertThrows(IOException.class, () -> Checkpoint.restore(file));
+
+        // The same hole twice in the column
+        bytes.putInt(28, holes);
+        int column = bytes.capacity() - 4 * holes;
+        bytes.putInt(column, bytes.getInt(column + 4));
+        Files.write(file, bytes.array());
+        assertThrows(IOException.class, () -> Checkpoint.restore(file));
+    }
+
+    // Saves an allocator with the given policy and random chunks to a file and returns the file
+    private Path save(FitPolicy policy) throws IOException
+    {
+        OnlineAllocator memory = new OnlineAllocator(CAPACITY, policy, true);
+        fill(memory, new Random(11));
+        Path file = directory.resolve(policy.toString());
+        Checkpoint.save(memory, file);
+        return file;
+    }
+
+    // Allocates random chunks in the given allocator and frees about a third of them, returning the ones left
+    private static List<Integer> fill(OnlineAllocator memory, Random random)
+    {
+        List<Integer> offsets = new ArrayList<>();
+        for (int request = 0; request < 300; request++)
+        {
+            int offset = memory.allocate(1 + random.nextInt(20));
+            if (offset != Allocator.NOT_ALLOCATED)
+                offsets.add(offset);
+        }
+        for (int k = 0; k < 100; k++)
+            memory.free(offsets.remove(random.nextInt(offsets.size())));
+        return offsets;
+    }
+
+    // Returns the bytes of the given file, in the little endian order of the checkpoints
+    private static ByteBuffer read(Path file) throws IOException
+    {
+        return ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
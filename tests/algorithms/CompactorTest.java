@@ -0,0 +1,160 @@
+package algorithms;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class CompactorTest
+{
+    // Returns a memory of chunks of 4 units, with a hole of 4 units after the given number of chunks
+    // and the rest of the memory allocated
+    private static OnlineAllocator holeAfter(int chunks)
+    {
+        OnlineAllocator memory = new OnlineAllocator(4 * (chunks + 4), FitPolicy.FIRST_FIT);
+        for (int k = 0; k < chunks + 4; k++)
+            memory.allocate(4);
+        memory.free(4 * chunks);
+        return memory;
+    }
+
+    @Test
+    void stepMovesAChunkEvenIfSkippingTheChunksBeforeItGoesOverTheBudget()
+    {
+        OnlineAllocator memory = holeAfter(100);
+        Compactor compactor = new Compactor(memory, null);
+
+        assertEquals(4, compactor.step(10, Long.MAX_VALUE));
+        assertEquals(1, compactor.chunksMoved());
+        assertEquals(400, compactor.relocation(404));
+    }
+
+    @Test
+    void stepMovesAChunkEvenIfItHasNoTime()
+    {
+        OnlineAllocator memory = holeAfter(100);
+        Compactor compactor = new Compactor(memory, null);
+
+        assertEquals(4, compactor.step(Long.MAX_VALUE, 0));
+        assertEquals(1, compactor.chunksMoved());
+    }
+
+    @Test
+    void stepOverCompactMemoryMovesNothing()
+    {
+        OnlineAllocator memory = new OnlineAllocator(64, FitPolicy.FIRST_FIT);
+        memory.allocate(16);
+        memory.allocate(16);
+        Compactor compactor = new Compactor(memory, null);
+
+        assertEquals(0, compactor.step(1, Long.MAX_VALUE));
+        assertEquals(0, compactor.chunksMoved());
+        assertEquals(0, compactor.relocationCount());
+        memory.allocate(16);
+    }
+
+    @Test
+    void allocatingAtTheOldOffsetOfAMovedChunkIsRefusedUntilTheRelocationsAreCleared()
+    {
+        OnlineAllocator memory = new OnlineAllocator(32, FitPolicy.FIRST_FIT);
+        int first = memory.allocate(8);
+        int moved = memory.allocate(8);
+        memory.free(first);
+
+        Compactor compactor = new Compactor(memory, null);
+        compactor.step(Long.MAX_VALUE, Long.MAX_VALUE);
+        assertEquals(first, compactor.relocation(moved));
+
+        // The old offset of the moved chunk is at the start of the hole after it, where first fit would allocate
+        assertThrows(IllegalStateException.class, () -> memory.allocate(8));
+        compactor.clearRelocations();
+        assertEquals(moved, memory.allocate(8));
+    }
+
+    @Test
+    void freeingAMovedChunkIsRefusedUntilTheRelocationsAreCleared()
+    {
+        OnlineAllocator memory = new OnlineAllocator(32, FitPolicy.FIRST_FIT);
+        int first = memory.allocate(8);
+        int second = memory.allocate(8);
+        int third = memory.allocate(8);
+        memory.free(first);
+
+        Compactor compactor = new Compactor(memory, null);
+        compactor.step(8, Long.MAX_VALUE);
+        assertEquals(1, compactor.chunksMoved());
+        int current = compactor.relocation(second);
+
+        // Freeing the moved chunk and allocating another one at its offset would make the next move of that offset
+        // be recorded as a move of the old chunk
+        assertThrows(IllegalStateException.class, () -> memory.free(current));
+        compactor.clearRelocations();
+        memory.free(current);
+        assertEquals(current, memory.allocate(8));
+
+        compactor.step(Long.MAX_VALUE, Long.MAX_VALUE);
+        assertEquals(current + 8, compactor.relocation(third));
+        assertEquals(1, compactor.relocationCount());
+    }
+
+    @Test
+    void compactionLeavesOneHoleAndRelocatesEveryChunk()
+    {
+        Random random = new Random(7);
+        OnlineAllocator memory = new OnlineAllocator(1 << 14, FitPolicy.BEST_FIT);
+        int offsets[] = new int[1 << 14];
+        int sizes[] = new int[1 << 14];
+        int count = 0;
+        for (int size = 1 + random.nextInt(64); ; size = 1 + random.nextInt(64))
+        {
+            int offset = memory.allocate(size);
+            if (offset == Allocator.NOT_ALLOCATED)
+                break;
+            offsets[count] = offset;
+            sizes[count++] = size;
+        }
+        for (int k = 0; k < count; k += 3)
+        {
+            memory.free(offsets[k]);
+            sizes[k] = 0;
+        }
+        long freeSpace = memory.freeSpace();
+
+        // Small steps, so that the chunks move several times
+        Compactor compactor = new Compactor(memory, null);
+        for (int step = 0; step < 10000 && memory.holeCount() > 1; step++)
+        {
+            compactor.step(100, Long.MAX_VALUE);
+            assertTrue(compactor.chunksMoved() > 0);
+        }
+
+        assertEquals(1, memory.holeCount());
+        assertEquals(freeSpace, memory.largestHole());
+        assertEquals(0, Compactor.fragmentation(memory));
+
+        // The chunks that were not freed keep their order and sizes, with no holes between them
+        int expected[] = new int[count - (count + 2) / 3 + 1];
+        int actual[] = new int[expected.length];
+        int next = 0;
+        int end = 0;
+        for (int k = 0; k < count; k++)
+        {
+            if (sizes[k] == 0)
+                continue;
+            int offset = compactor.relocation(offsets[k]);
+            expected[next] = end;
+            actual[next++] = offset;
+            assertEquals(sizes[k], memory.sizeOf(offset));
+            end += sizes[k];
+        }
+        expected[next] = (int) (memory.capacity() - freeSpace);
+        actual[next] = end;
+        assertArrayEquals(expected, actual);
+        compactor.clearRelocations();
+        assertEquals(0, compactor.relocationCount());
+    }
+}
@@ -0,0 +1,31 @@
+package algorithms;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+// Compares the searches of first fit with the linear search, which checks the blocks one by one
+class FirstFitTest
+{
+    @Test
+    void segmentTreeMatchesLinear()
+    {
+        Batches.assertSameAllocation(new FirstFit(FirstFit.Search.LINEAR), new FirstFit(FirstFit.Search.SEGMENT_TREE));
+    }
+
+    @Test
+    void vectorMatchesLinear()
+    {
+        Batches.assertSameAllocation(new FirstFit(FirstFit.Search.LINEAR), new FirstFit(FirstFit.Search.VECTOR));
+    }
+
+    @Test
+    void firstFitIndexedMatchesFirstFit()
+    {
+        int sizeOfBlocks[] = {100, 500, 200, 300, 600};
+        int sizeOfProcesses[] = {212, 417, 112, 426};
+
+        assertEquals(FirstFit.firstFit(sizeOfBlocks.clone(), sizeOfProcesses),
+                FirstFit.firstFitIndexed(sizeOfBlocks.clone(), sizeOfProcesses));
+    }
+}
@@ -0,0 +1,71 @@
+package algorithms;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+// Compares the packed-long sort of FitDecreasing with sorting the ids of the processes as Integer objects
+class FitDecreasingTest
+{
+    @Test
+    void firstFitDecreasingPlacesTheBiggestProcessesFirst()
+    {
+        int sizeOfBlocks[] = {100, 500, 200, 300, 600};
+        int sizeOfProcesses[] = {212, 417, 112, 426};
+
+        // First fit leaves the process of 426 KBs out, first fit decreasing places all of them
+        assertEquals(Allocator.NOT_ALLOCATED, FirstFit.firstFit(sizeOfBlocks.clone(), sizeOfProcesses).get(3));
+        assertEquals(Arrays.asList(3, 4, 2, 1), FitDecreasing.firstFitDecreasing(sizeOfBlocks.clone(), sizeOfProcesses));
+    }
+
+    @Test
+    void matchesTheWrappedAllocatorOnTheSortedProcesses()
+    {
+        assertSameAllocation(new FirstFit());
+        assertSameAllocation(new BestFit());
+        assertSameAllocation(new WorstFit());
+    }
+
+    // Checks that FitDecreasing over the given allocator allocates every process like the given allocator does
+    // when the processes are sorted by descending size (and ascending id) as objects, on random batches
+    private static void assertSameAllocation(Allocator allocator)
+    {
+        for (int m : Batches.BLOCK_COUNTS)
+        {
+            for (int seed = 0; seed < 5; seed++)
+            {
+                Random random = new Random(31L * m + seed);
+                int maxSize = seed % 2 == 0 ? 8 : 1000;
+                int sizeOfBlocks[] = Batches.randomSizes(random, m, 0, maxSize);
+                int sizeOfProcesses[] = Batches.randomSizes(random, 2 * m + 5, 1, maxSize / 2);
+                int n = sizeOfProcesses.length;
+
+                Integer order[] = new Integer[n];
+                for (int i = 0; i < n; i++)
+                    order[i] = i;
+                Arrays.sort(order, Comparator.comparingInt((Integer i) -> -sizeOfProcesses[i]).thenComparingInt(i -> i));
+                int sortedProcesses[] = new int[n];
+                for (int k = 0; k < n; k++)
+                    sortedProcesses[k] = sizeOfProcesses[order[k]];
+
+                int expectedBlocks[] = sizeOfBlocks.clone();
+                int sortedAllocation[] = allocator.allocate(expectedBlocks, sortedProcesses);
+                int expected[] = new int[n];
+                for (int k = 0; k < n; k++)
+                    expected[order[k]] = sortedAllocation[k];
+
+                int actualBlocks[] = sizeOfBlocks.clone();
+                int actual[] = new FitDecreasing(allocator).allocate(actualBlocks, sizeOfProcesses);
+
+                String batch = m + " blocks, seed " + seed;
+                assertArrayEquals(expected, actual, batch);
+                assertArrayEquals(expectedBlocks, actualBlocks, batch);
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package algorithms;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+// Compares the searches of next fit with the linear search, which checks the blocks one by one from the last allocated block
+class NextFitTest
+{
+    @Test
+    void segmentTreeMatchesLinear()
+    {
+        Batches.assertSameAllocation(new NextFit(NextFit.Search.LINEAR), new NextFit(NextFit.Search.SEGMENT_TREE));
+    }
+
+    @Test
+    void vectorMatchesLinear()
+    {
+        Batches.assertSameAllocation(new NextFit(NextFit.Search.LINEAR), new NextFit(NextFit.Search.VECTOR));
+    }
+
+    @Test
+    void nextFitIndexedMatchesNextFit()
+    {
+        int sizeOfBlocks[] = {5, 10, 20};
+        int sizeOfProcesses[] = {10, 20, 5};
+
+        assertEquals(NextFit.nextFit(sizeOfBlocks.clone(), sizeOfProcesses),
+                NextFit.nextFitIndexed(sizeOfBlocks.clone(), sizeOfProcesses));
+    }
+}
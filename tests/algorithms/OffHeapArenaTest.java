@@ -0,0 +1,130 @@
+package algorithms;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+class OffHeapArenaTest
+{
+    private static final int SIZE = 56; // The size of the slices, whose chunks (with the header and footer) are 64 bytes
+
+    // Fills a new arena with slices of SIZE bytes and returns their offsets in ascending order
+    private static int[] fill(OffHeapArena arena)
+    {
+        int offsets[] = new int[64];
+        int count = 0;
+        for (int offset = arena.allocate(SIZE); offset != Allocator.NOT_ALLOCATED; offset = arena.allocate(SIZE))
+        {
+            if (count == offsets.length)
+                offsets = Arrays.copyOf(offsets, 2 * count);
+            offsets[count++] = offset;
+        }
+        offsets = Arrays.copyOf(offsets, count);
+        Arrays.sort(offsets);
+        return offsets;
+    }
+
+    @Test
+    void firstFitChoosesTheFreeChunkWithTheSmallestOffset()
+    {
+        OffHeapArena arena = new OffHeapArena(4096, 8, FitPolicy.FIRST_FIT);
+        int offsets[] = fill(arena);
+
+        // The chunk freed last is at the start of a free list in the order of the frees, but not in the order of the offsets
+        arena.free(offsets[2]);
+        arena.free(offsets[6]);
+        arena.free(offsets[4]);
+
+        assertEquals(offsets[2], arena.allocate(SIZE));
+        assertEquals(offsets[4], arena.allocate(SIZE));
+        assertEquals(offsets[6], arena.allocate(SIZE));
+    }
+
+    @Test
+    void nextFitGoesThroughTheFreeChunksInTheOrderOfTheMemory()
+    {
+        OffHeapArena arena = new OffHeapArena(4096, 8, FitPolicy.NEXT_FIT);
+        int offsets[] = fill(arena);
+
+        arena.free(offsets[7]);
+        arena.free(offsets[1]);
+        arena.free(offsets[3]);
+        arena.free(offsets[5]);
+
+        assertEquals(offsets[1], arena.allocate(SIZE));
+        assertEquals(offsets[3], arena.allocate(SIZE));
+        assertEquals(offsets[5], arena.allocate(SIZE));
+        assertEquals(offsets[7], arena.allocate(SIZE));
+    }
+
+    @Test
+    void freeingTwiceIsRejected()
+    {
+        OffHeapArena arena = new OffHeapArena(4096, 8, FitPolicy.FIRST_FIT);
+        int offsets[] = fill(arena);
+        long freeBytes = arena.freeBytes(); // The end of the arena that is too small for a slice
+
+        // A chunk without free neighbours, one that merges with the chunk before it and one that merges with the chunk after it
+        arena.free(offsets[2]);
+        assertThrows(IllegalArgumentException.class, () -> arena.free(offsets[2]));
+        arena.free(offsets[3]);
+        assertThrows(IllegalArgumentException.class, () -> arena.free(offsets[3]));
+        arena.free(offsets[1]);
+        assertThrows(IllegalArgumentException.class, () -> arena.free(offsets[1]));
+
+        // The free space is still one chunk of the three slices, which the free list holds once
+        assertEquals(freeBytes + 3 * 64, arena.freeBytes());
+        assertEquals(offsets[1], arena.allocate(3 * 64 - 8));
+        assertEquals(freeBytes, arena.freeBytes());
+    }
+
+    @Test
+    void staleSlicesInsideAMergedChunkAreRejected()
+    {
+        OffHeapArena arena = new OffHeapArena(4096, 8, FitPolicy.FIRST_FIT);
+        int offsets[] = fill(arena);
+
+        arena.free(offsets[1]);
+        arena.free(offsets[2]);
+        arena.free(offsets[3]);
+
+        // The merged chunk is handed out again as one slice that covers the old ones
+        int merged = arena.allocate(3 * 64 - 8);
+        assertEquals(offsets[1], merged);
+        assertThrows(IllegalArgumentException.class, () -> arena.free(offsets[2]));
+        assertThrows(IllegalArgumentException.class, () -> arena.slice(offsets[3]));
+        arena.free(merged);
+        assertNotEquals(Allocator.NOT_ALLOCATED, arena.allocate(SIZE));
+    }
+
+    @Test
+    void slicesAndTheBufferShareTheSameBytes()
+    {
+        OffHeapArena arena = new OffHeapArena(4096, 16, FitPolicy.BEST_FIT);
+        int first = arena.allocate(20);
+        int second = arena.allocate(100);
+
+        assertEquals(0, first % 16);
+        assertEquals(0, second % 16);
+        assertTrue(arena.payloadSize(first) >= 20);
+        assertTrue(arena.payloadSize(second) >= 100);
+
+        arena.buffer().putLong(first, 42);
+        arena.slice(second).putInt(96, 7);
+        assertEquals(42, arena.slice(first).getLong(0));
+        assertEquals(7, arena.buffer().getInt(second + 96));
+    }
+
+    @Test
+    void capacityNearIntegerMaxValueIsRejected()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapArena(Integer.MAX_VALUE, 8, FitPolicy.FIRST_FIT));
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapArena(Integer.MAX_VALUE - 63, 64, FitPolicy.FIRST_FIT));
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapArena(0, 8, FitPolicy.FIRST_FIT));
+    }
+}
@@ -0,0 +1,225 @@
+package algorithms;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+// Compares random sequences of allocations and frees on an OnlineAllocator with a naive model of the memory,
+// which keeps a flag for every unit and finds the holes by scanning all of them
+class OnlineAllocatorTest
+{
+    private static final int CAPACITY = 4096;
+    private static final int OPERATIONS = 5000;
+
+    // Naive model of the memory, with a flag for every unit and the size of every allocated chunk at its offset
+    private static final class Model
+    {
+        final boolean used[];
+        final int sizes[];
+        FitPolicy policy;
+        int pointer = 0;
+
+        Model(int capacity, FitPolicy policy)
+        {
+            used = new boolean[capacity];
+            sizes = new int[capacity];
+            this.policy = policy;
+        }
+
+        // Returns the offset of the hole that the policy chooses, found by checking all the holes, or NOT_ALLOCATED
+        int findHole(int size)
+        {
+            int found = Allocator.NOT_ALLOCATED;
+            int foundSize = 0;
+            for (int start = 0; start < used.length; )
+            {
+                if (used[start])
+                {
+                    start += sizes[start];
+                    continue;
+                }
+                int end = start;
+                while (end < used.length && !used[end])
+                    end++;
+                int holeSize = end - start;
+
+                if (holeSize >= size)
+                {
+                    switch (policy)
+                    {
+                        case FIRST_FIT:
+                            return start;
+                        case NEXT_FIT:
+                            if (start >= pointer)
+                                return start;
+                            if (found == Allocator.NOT_ALLOCATED)
+                                found = start;
+                            break;
+                        case BEST_FIT:
+                            if (found == Allocator.NOT_ALLOCATED || holeSize < foundSize)
+                            {
+                                found = start;
+                                foundSize = holeSize;
+                            }
+                            break;
+                        default:
+                            if (found == Allocator.NOT_ALLOCATED || holeSize > foundSize)
+                            {
+                                found = start;
+                                foundSize = holeSize;
+                            }
+                    }
+                }
+                start = end;
+            }
+            return found;
+        }
+
+        int allocate(int size)
+        {
+            int offset = findHole(size);
+            if (offset != Allocator.NOT_ALLOCATED)
+            {
+                Arrays.fill(used, offset, offset + size, true);
+                sizes[offset] = size;
+                pointer = offset + size;
+            }
+            return offset;
+        }
+
+        void free(int offset)
+        {
+            Arrays.fill(used, offset, offset + sizes[offset], false);
+            sizes[offset] = 0;
+        }
+
+        // Returns the size of every chunk in the order of their offsets, negative for the holes
+        int[] chunkSizes()
+        {
+            int chunks[] = new int[used.length];
+            int count = 0;
+            for (int start = 0; start < used.length; )
+            {
+                if (used[start])
+                {
+                    chunks[count++] = sizes[start];
+                    start += sizes[start];
+                    continue;
+                }
+                int end = start;
+                while (end < used.length && !used[end])
+                    end++;
+                chunks[count++] = start - end;
+                start = end;
+            }
+            return Arrays.copyOf(chunks, count);
+        }
+    }
+
+    @Test
+    void firstFitMatchesModel()
+    {
+        compareWithModel(FitPolicy.FIRST_FIT, false, 1);
+    }
+
+    @Test
+    void nextFitMatchesModel()
+    {
+        compareWithModel(FitPolicy.NEXT_FIT, false, 2);
+    }
+
+    @Test
+    void bestFitMatchesModel()
+    {
+        compareWithModel(FitPolicy.BEST_FIT, false, 3);
+    }
+
+    @Test
+    void worstFitMatchesModel()
+    {
+        compareWithModel(FitPolicy.WORST_FIT, false, 4);
+    }
+
+    @Test
+    void switchableMatchesModel()
+    {
+        compareWithModel(FitPolicy.FIRST_FIT, true, 5);
+    }
+
+    @Test
+    void freeRejectsChunksThatAreNotAllocated()
+    {
+        OnlineAllocator memory = new OnlineAllocator(64, FitPolicy.FIRST_FIT);
+        int offset = memory.allocate(8);
+        memory.allocate(8);
+        memory.free(offset);
+
+        assertThrows(IllegalArgumentException.class, () -> memory.free(offset));
+        assertThrows(IllegalArgumentException.class, () -> memory.free(offset + 1));
+        assertThrows(IllegalArgumentException.class, () -> memory.free(40));
+        assertThrows(IllegalArgumentException.class, () -> memory.free(-1));
+    }
+
+    // Runs the same random allocations and frees on an OnlineAllocator and on the model and checks that they
+    // choose the same holes and end up with the same chunks after every operation. A switchable allocator
+    // changes its policy every now and then.
+    private static void compareWithModel(FitPolicy policy, boolean switchable, long seed)
+    {
+        Random random = new Random(seed);
+        OnlineAllocator memory = new OnlineAllocator(CAPACITY, policy, switchable);
+        Model model = new Model(CAPACITY, policy);
+
+        int offsets[] = new int[CAPACITY];
+        int count = 0;
+        for (int operation = 0; operation < OPERATIONS; operation++)
+        {
+            if (switchable && random.nextInt(50) == 0)
+            {
+                FitPolicy next = FitPolicy.values()[random.nextInt(FitPolicy.values().length)];
+                memory.setPolicy(next);
+                model.policy = next;
+            }
+
+            if (count > 0 && random.nextInt(100) < 45)
+            {
+                int k = random.nextInt(count);
+                memory.free(offsets[k]);
+                model.free(offsets[k]);
+                offsets[k] = offsets[--count];
+            }
+            else
+            {
+                // Mostly small chunks, with a few big ones that often don't fit
+                int size = random.nextInt(10) == 0 ? 1 + random.nextInt(CAPACITY / 4) : 1 + random.nextInt(64);
+                int offset = memory.allocate(size);
+                assertEquals(model.allocate(size), offset, "operation " + operation + ", size " + size);
+                if (offset != Allocator.NOT_ALLOCATED)
+                    offsets[count++] = offset;
+            }
+
+            int chunks[] = model.chunkSizes();
+            assertArrayEquals(chunks, memory.chunkSizes(), "operation " + operation);
+
+            long freeSpace = 0;
+            int holes = 0;
+            int largestHole = 0;
+            for (int size : chunks)
+            {
+                if (size < 0)
+                {
+                    freeSpace -= size;
+                    holes++;
+                    largestHole = Math.max(largestHole, -size);
+                }
+            }
+            assertEquals(freeSpace, memory.freeSpace());
+            assertEquals(holes, memory.holeCount());
+            assertEquals(largestHole, memory.largestHole());
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package algorithms;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+// Follows the slabs of a SlabAllocator from full to partial to returned to the OnlineAllocator,
+// with magazines of one slot wherever the test needs to know exactly which slots the slabs hold
+class SlabAllocatorTest
+{
+    private static final int CAPACITY = 4096;
+
+    @Test
+    void slabGoesFromFullToPartialToReleased()
+    {
+        OnlineAllocator memory = new OnlineAllocator(CAPACITY, FitPolicy.FIRST_FIT);
+        SlabAllocator slabs = new SlabAllocator(memory, new int[] {8}, 16, 1);
+
+        // Fills the first slab
+        long[] handles = new long[16];
+        Set<Integer> offsets = new HashSet<>();
+        for (int i = 0; i < handles.length; i++)
+        {
+            handles[i] = slabs.allocate(5);
+            assertTrue(offsets.add(SlabAllocator.offsetOf(handles[i])));
+        }
+        assertEquals(1, slabs.slabCount());
+        assertEquals(CAPACITY - 16 * 8, memory.freeSpace());
+
+        // A full slab has no slot left, so the next slot comes from a new slab, which goes back once it's empty again
+        long extra = slabs.allocate(8);
+        assertEquals(2, slabs.slabCount());
+        slabs.free(extra);
+        slabs.flush();
+        assertEquals(1, slabs.slabCount());
+
+        // A freed slot makes the first slab partial, and is the slot that the next allocation takes
+        slabs.free(handles[3]);
+        slabs.flush();
+        assertEquals(1, slabs.slabCount());
+        handles[3] = slabs.allocate(8);
+        assertEquals(1, slabs.slabCount());
+        assertTrue(offsets.contains(SlabAllocator.offsetOf(handles[3])));
+
+        // A slab with all its slots free goes back to the memory, where it merges with the hole after it
+        for (long handle : handles)
+            slabs.free(handle);
+        slabs.flush();
+        assertEquals(0, slabs.slabCount());
+        assertEquals(CAPACITY, memory.freeSpace());
+        assertEquals(1, memory.holeCount());
+    }
+
+    @Test
+    void slotsPerSlabThatIsNotAMultipleOf64HasNoSlotsPastTheEnd()
+    {
+        OnlineAllocator memory = new OnlineAllocator(CAPACITY, FitPolicy.BEST_FIT);
+        SlabAllocator slabs = new SlabAllocator(memory, new int[] {2}, 70, 8);
+
+        // The magazine takes 4 slots at a time, so the refill that takes slots 68 and 69 would go on to
+        // slots 70 and 71 if the last word of the bitmap had free bits past the end of the slab
+        long[] handles = new long[72];
+        Set<Integer> offsets = new HashSet<>();
+        int[] slotsOfSlab = new int[2];
+        for (int i = 0; i < handles.length; i++)
+        {
+            handles[i] = slabs.allocate(2);
+            assertTrue(offsets.add(SlabAllocator.offsetOf(handles[i])));
+            slotsOfSlab[(int) (handles[i] >>> 32)]++;
+        }
+        assertEquals(2, slabs.slabCount());
+        assertEquals(70, slotsOfSlab[0]);
+        assertEquals(2, slotsOfSlab[1]);
+
+        for (long handle : handles)
+            slabs.free(handle);
+        slabs.flush();
+        assertEquals(0, slabs.slabCount());
+        assertEquals(CAPACITY, memory.freeSpace());
+    }
+
+    @Test
+    void doubleFreeIsFoundWhenTheSlotGoesBackToItsSlab()
+    {
+        OnlineAllocator memory = new OnlineAllocator(CAPACITY, FitPolicy.FIRST_FIT);
+        SlabAllocator slabs = new SlabAllocator(memory, new int[] {4, 16}, 32, 8);
+
+        long handle = slabs.allocate(16);
+        slabs.free(handle);
+        slabs.free(handle); // Only goes into the magazine, so it isn't checked yet
+        assertThrows(IllegalArgumentException.class, slabs::flush);
+    }
+
+    @Test
+    void slotsFreedByAnotherThreadGoBackOnFlush() throws InterruptedException
+    {
+        OnlineAllocator memory = new OnlineAllocator(CAPACITY, FitPolicy.NEXT_FIT);
+        SlabAllocator slabs = new SlabAllocator(memory, new int[] {4, 16, 64}, 16, 8);
+        long[] handles = new long[100];
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Thread producer = new Thread(() ->
+        {
+            for (int i = 0; i < handles.length; i++)
+                handles[i] = slabs.allocate(1 + i % 16);
+            slabs.flush(); // Gives back the slots left over in its magazines
+        });
+        producer.setUncaughtExceptionHandler((thread, e) -> failure.set(e));
+        producer.start();
+        producer.join();
+        for (long handle : handles)
+            assertNotEquals(Allocator.NOT_ALLOCATED, handle);
+        assertTrue(slabs.slabCount() > 0);
+
+        // The freed slots stay in the magazines of the consumer until it flushes
+        Thread consumer = new Thread(() ->
+        {
+            for (long handle : handles)
+                slabs.free(handle);
+            assertTrue(slabs.slabCount() > 0);
+            slabs.flush();
+        });
+        consumer.setUncaughtExceptionHandler((thread, e) -> failure.set(e));
+        consumer.start();
+        consumer.join();
+
+        assertEquals(null, failure.get());
+        assertEquals(0, slabs.slabCount());
+        assertEquals(CAPACITY, memory.freeSpace());
+        assertEquals(1, memory.holeCount());
+    }
+}
@@ -0,0 +1,125 @@
+package algorithms;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+// Allocates and frees from many threads at the same time and checks that no chunk is handed out twice
+// and that all the memory comes back to the arenas
+class StripedAllocatorTest
+{
+    private static final int ARENA_CAPACITY = 256;
+    private static final int ARENAS = 4;
+    private static final int THREADS = 8;
+    private static final int OPERATIONS = 20000;
+
+    @Test
+    void threadStealsFromTheOtherArenasWhenItsHomeIsFull()
+    {
+        StripedAllocator allocator = new StripedAllocator(ARENA_CAPACITY, ARENAS, FitPolicy.FIRST_FIT);
+        Set<Integer> arenasUsed = new HashSet<>();
+        List<Long> handles = new ArrayList<>();
+
+        // Asks for all the memory of all the arenas, which only fits if the thread steals from every other arena
+        for (int i = 0; i < ARENAS * 4; i++)
+        {
+            long handle = allocator.allocate(ARENA_CAPACITY / 4);
+            assertNotEquals(Allocator.NOT_ALLOCATED, handle);
+            assertTrue(handles.add(handle));
+            arenasUsed.add(StripedAllocator.arenaOf(handle));
+        }
+        assertEquals(ARENAS, arenasUsed.size());
+        assertEquals(0, allocator.freeSpace());
+        assertEquals(Allocator.NOT_ALLOCATED, allocator.allocate(1));
+
+        for (long handle : handles)
+            allocator.free(handle);
+        assertArenasAreEmpty(allocator);
+    }
+
+    @Test
+    void concurrentThreadsNeverShareAChunkAndGiveBackAllTheMemory() throws Exception
+    {
+        StripedAllocator allocator = new StripedAllocator(ARENA_CAPACITY, ARENAS, FitPolicy.BEST_FIT);
+        Set<Long> live = ConcurrentHashMap.newKeySet(); // The handles that are allocated and not freed yet
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try
+        {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++)
+            {
+                long seed = t;
+                results.add(executor.submit(() ->
+                {
+                    Random random = new Random(seed);
+                    List<Long> handles = new ArrayList<>();
+                    int steals = 0;
+                    start.await();
+                    for (int i = 0; i < OPERATIONS; i++)
+                    {
+                        // Chunks of up to a quarter of an arena, so a thread holding a few of them fills its home
+                        if (handles.isEmpty() || (handles.size() < 8 && random.nextBoolean()))
+                        {
+                            long handle = allocator.allocate(1 + random.nextInt(ARENA_CAPACITY / 4));
+                            if (handle == Allocator.NOT_ALLOCATED)
+                                continue;
+                            // A handle that is live already was handed out to two owners at the same time
+                            assertTrue(live.add(handle), "handle handed out twice: " + handle);
+                            if (!handles.isEmpty() && StripedAllocator.arenaOf(handle) != StripedAllocator.arenaOf(handles.get(0)))
+                                steals++;
+                            handles.add(handle);
+                        }
+                        else
+                        {
+                            // Frees a random chunk, which may live in another thread's home arena
+                            long handle = handles.remove(random.nextInt(handles.size()));
+                            assertTrue(live.remove(handle));
+                            allocator.free(handle);
+                        }
+                    }
+                    for (long handle : handles)
+                    {
+                        assertTrue(live.remove(handle));
+                        allocator.free(handle);
+                    }
+                    return steals;
+                }));
+            }
+            start.countDown();
+
+            int steals = 0;
+            for (Future<Integer> result : results)
+                steals += result.get(); // Rethrows the assertion errors of the threads
+            assertTrue(steals > 0, "no thread allocated outside of its home arena");
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        assertTrue(live.isEmpty());
+        assertArenasAreEmpty(allocator);
+    }
+
+    // Checks that the holes of every arena add up to its capacity again
+    private static void assertArenasAreEmpty(StripedAllocator allocator)
+    {
+        for (int arena = 0; arena < allocator.arenaCount(); arena++)
+            assertEquals(ARENA_CAPACITY, allocator.freeSpace(arena), "arena " + arena);
+        assertEquals((long) ARENA_CAPACITY * ARENAS, allocator.freeSpace());
+    }
+}
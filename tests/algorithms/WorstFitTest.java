@@ -0,0 +1,25 @@
+package algorithms;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+// Compares the indexed max heap of worst fit with the TreeSet of BlockInWorstFit objects
+class WorstFitTest
+{
+    @Test
+    void blockHeapMatchesTreeSet()
+    {
+        Batches.assertSameAllocation(new WorstFit(WorstFit.Index.TREE_SET), new WorstFit(WorstFit.Index.BLOCK_HEAP));
+    }
+
+    @Test
+    void worstFitHeapMatchesWorstFit()
+    {
+        int sizeOfBlocks[] = {100, 500, 200, 300, 600};
+        int sizeOfProcesses[] = {212, 417, 112, 426};
+
+        assertEquals(WorstFit.worstFit(sizeOfBlocks.clone(), sizeOfProcesses),
+                WorstFit.worstFitHeap(sizeOfBlocks.clone(), sizeOfProcesses));
+    }
+}